@@ -0,0 +1,114 @@
+package framework.benchmarks.generator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes synthetic @Service graphs for the benchmarks, one package per size:
+ * {@code framework.benchmarks.generated.s<size>}. Run by the build as a single source file program,
+ * before anything is compiled:
+ * <pre>
+ * java ServiceGraphGenerator.java &lt;output directory&gt; &lt;size&gt;...
+ * </pre>
+ * In a graph of n services `Service0` has a no-args constructor and implements `Api`, every other
+ * `Service<i>` takes up to two earlier services in its constructor and has an @Autowired field and an
+ * @Autowired setter for one more each. Dependencies are picked with a random seeded by the size,
+ * so the same size always gives the same graph and results stay comparable between builds.
+ */
+public class ServiceGraphGenerator {
+    static final String BASE_PACKAGE = "framework.benchmarks.generated";
+    private static final int CONSTRUCTOR_DEPENDENCIES = 2;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java ServiceGraphGenerator.java <output directory> <size>...");
+            System.exit(1);
+        }
+
+        Path outputDirectory = Path.of(args[0]);
+        for (int i = 1; i < args.length; i++) {
+            int size = Integer.parseInt(args[i]);
+            generate(outputDirectory, size);
+        }
+    }
+
+    private static void generate(Path outputDirectory, int size) throws IOException {
+        String packageName = BASE_PACKAGE + ".s" + size;
+        Path packageDirectory = outputDirectory.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(packageDirectory);
+
+        Files.writeString(packageDirectory.resolve("Api.java"), """
+                package %s;
+
+                public interface Api {
+                    int id();
+                }
+                """.formatted(packageName));
+
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            Files.writeString(packageDirectory.resolve("Service" + i + ".java"), service(packageName, i, random));
+        }
+    }
+
+    private static String service(String packageName, int index, Random random) {
+        List<Integer> constructorDependencies = new ArrayList<>();
+        while (constructorDependencies.size() < Math.min(index, CONSTRUCTOR_DEPENDENCIES)) {
+            int dependency = random.nextInt(index);
+            if (!constructorDependencies.contains(dependency)) {
+                constructorDependencies.add(dependency);
+            }
+        }
+        int fieldDependency = index > 0 ? random.nextInt(index) : -1;
+        int setterDependency = index > 0 ? random.nextInt(index) : -1;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(packageName).append(";\n\n")
+                .append("import framework.annotations.Autowired;\n")
+                .append("import framework.annotations.Service;\n\n")
+                .append("// Generated by ").append(ServiceGraphGenerator.class.getName()).append(", do not edit\n")
+                .append("@Service\n")
+                .append("public class Service").append(index).append(index == 0 ? " implements Api" : "").append(" {\n");
+
+        for (int i = 0; i < constructorDependencies.size(); i++) {
+            sb.append("    private final Service").append(constructorDependencies.get(i))
+                    .append(" dependency").append(i).append(";\n");
+        }
+        if (index > 0) {
+            sb.append("\n    @Autowired\n")
+                    .append("    Service").append(fieldDependency).append(" fieldDependency;\n")
+                    .append("    private Service").append(setterDependency).append(" setterDependency;\n");
+        }
+
+        sb.append(index > 0 ? "\n" : "").append("    public Service").append(index).append("(");
+        for (int i = 0; i < constructorDependencies.size(); i++) {
+            sb.append(i > 0 ? ", " : "").append("Service").append(constructorDependencies.get(i))
+                    .append(" dependency").append(i);
+        }
+        sb.append(") {\n");
+        for (int i = 0; i < constructorDependencies.size(); i++) {
+            sb.append("        this.dependency").append(i).append(" = dependency").append(i).append(";\n");
+        }
+        sb.append("    }\n");
+
+        if (index > 0) {
+            sb.append("\n    @Autowired\n")
+                    .append("    public void setSetterDependency(Service").append(setterDependency)
+                    .append(" setterDependency) {\n")
+                    .append("        this.setterDependency = setterDependency;\n")
+                    .append("    }\n");
+        }
+        if (index == 0) {
+            sb.append("\n    @Override\n")
+                    .append("    public int id() {\n")
+                    .append("        return 0;\n")
+                    .append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package framework.benchmarks;
+
+import framework.Framework;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getInstanceFromAppContext on a started context of 1000 services, by class and by interface.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextLookupBenchmark {
+    private static final int SERVICES = 1000;
+
+    private Class<?> serviceType;
+    private Class<?> interfaceType;
+
+    @Setup(Level.Trial)
+    public void start() throws ClassNotFoundException {
+        GeneratedContexts.start(SERVICES);
+        serviceType = GeneratedContexts.type(SERVICES, "Service" + (SERVICES / 2));
+        interfaceType = GeneratedContexts.type(SERVICES, "Api");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Framework.resetContext();
+    }
+
+    @Benchmark
+    public Object byClass() throws Exception {
+        return Framework.getInstanceFromAppContext(serviceType);
+    }
+
+    @Benchmark
+    public Object byInterface() throws Exception {
+        return Framework.getInstanceFromAppContext(interfaceType);
+    }
+}
@@ -0,0 +1,48 @@
+package framework.benchmarks;
+
+import framework.Framework;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * forwardContext() on generated graphs of 10, 100 and 1000 services, with the generated constructor
+ * calls and injection and with reflection. Resetting the previous context isn't measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContextStartupBenchmark {
+    @Param({"10", "100", "1000"})
+    int services;
+
+    @Param({"true", "false"})
+    boolean aot;
+
+    private Class<?> lastService;
+
+    @Setup(Level.Trial)
+    public void configure() throws ClassNotFoundException {
+        GeneratedContexts.configure(services, "--framework.aot.enabled=" + aot);
+        lastService = GeneratedContexts.type(services, "Service" + (services - 1));
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        Framework.resetContext();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Framework.resetContext();
+    }
+
+    @Benchmark
+    public Object forwardContext() throws Exception {
+        Framework.forwardContext();
+        return Framework.getInstanceFromAppContext(lastService);
+    }
+}
@@ -0,0 +1,47 @@
+package framework.benchmarks;
+
+import framework.scheduled.CronExpression;
+import framework.utils.CronUtility;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing @Scheduled cron strings, both the legacy "seconds minutes" interval and six field
+ * expressions, and computing the next fire time of a parsed expression.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CronParsingBenchmark {
+    @Param({"0 */5 * * * *", "0 0 9-17 * * MON-FRI", "0 15,45 8 1,15 JAN-JUN ?"})
+    String expression;
+
+    private CronExpression parsed;
+    private final ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Setup(Level.Trial)
+    public void parse() throws Exception {
+        parsed = CronExpression.parse(expression);
+    }
+
+    @Benchmark
+    public int parseInterval() throws Exception {
+        return CronUtility.parseTotalSecondsFromCron("5 1");
+    }
+
+    @Benchmark
+    public CronExpression parseExpression() throws Exception {
+        return CronExpression.parse(expression);
+    }
+
+    @Benchmark
+    public ZonedDateTime nextFireTime() {
+        return parsed.nextFireTime(from);
+    }
+}
@@ -0,0 +1,49 @@
+package framework.benchmarks;
+
+import framework.events.FrameworkPublisher;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * publishEvent to 1 to 1000 synchronous listeners of the event's class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPublishBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    int listeners;
+
+    private FrameworkPublisher publisher;
+    private final BenchmarkEvent event = new BenchmarkEvent(42);
+
+    public record BenchmarkEvent(int value) {
+    }
+
+    public static class Listener {
+        private long sum;
+
+        public void onEvent(BenchmarkEvent event) {
+            sum += event.value();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void registerListeners() throws Exception {
+        publisher = new FrameworkPublisher();
+        Method onEvent = Listener.class.getMethod("onEvent", BenchmarkEvent.class);
+        for (int i = 0; i < listeners; i++) {
+            publisher.addEventListener(new Listener(), onEvent, BenchmarkEvent.class);
+        }
+    }
+
+    @Benchmark
+    public void publishEvent() {
+        publisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,37 @@
+package framework.benchmarks;
+
+import framework.Framework;
+import framework.utils.PropertyAccessor;
+
+import java.util.Arrays;
+
+/**
+ * Starts the contexts of the services ServiceGraphGenerator wrote for a size, one at a time.
+ */
+final class GeneratedContexts {
+    private static final String BASE_PACKAGE = "framework.benchmarks.generated";
+
+    private GeneratedContexts() {
+    }
+
+    /**
+     * Points the next forwardContext at the services of the given size
+     *
+     * @param args - further `--key=value` properties, e.g. `--framework.aot.enabled=false`
+     */
+    static void configure(int services, String... args) {
+        String[] commandLineArgs = Arrays.copyOf(args, args.length + 1);
+        commandLineArgs[args.length] = "--framework.base-package=" + BASE_PACKAGE + ".s" + services;
+        PropertyAccessor.setCommandLineArgs(commandLineArgs);
+    }
+
+    static void start(int services, String... args) {
+        configure(services, args);
+        Framework.resetContext();
+        Framework.forwardContext();
+    }
+
+    static Class<?> type(int services, String simpleName) throws ClassNotFoundException {
+        return Class.forName(BASE_PACKAGE + ".s" + services + "." + simpleName);
+    }
+}
@@ -0,0 +1,39 @@
+package framework.benchmarks;
+
+import framework.Framework;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field and setter injection of every instance of a started context of 100 services, i.e. one
+ * @Autowired field and one @Autowired setter for 99 of them. Injection plans are built by the
+ * context start and reused, so this is the cost of executing them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionBenchmark {
+    private static final int SERVICES = 100;
+
+    @Param({"true", "false"})
+    boolean aot;
+
+    @Setup(Level.Trial)
+    public void start() {
+        GeneratedContexts.start(SERVICES, "--framework.aot.enabled=" + aot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Framework.resetContext();
+    }
+
+    @Benchmark
+    public void performDI() throws Exception {
+        Framework.performDI();
+    }
+}
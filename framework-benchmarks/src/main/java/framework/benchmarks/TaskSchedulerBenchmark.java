@@ -0,0 +1,68 @@
+package framework.benchmarks;
+
+import framework.scheduled.ExecutorTaskScheduler;
+import framework.scheduled.TaskScheduler;
+import framework.scheduled.TimingWheelTaskScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two `scheduling.backend`s, the ScheduledThreadPoolExecutor and the timing wheel at two tick sizes.
+ * <p>
+ * fireAll schedules a batch of due tasks and waits until all of them ran, the score is tasks per
+ * second. firingLatency schedules a single task 5ms ahead and waits for it, everything above 5ms
+ * in its distribution is how late the backend fired.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSchedulerBenchmark {
+    private static final int POOL_SIZE = 4;
+    private static final int BATCH = 10_000;
+    private static final long LATENCY_DELAY_MILLIS = 5L;
+
+    @Param({"executor", "timing-wheel-1ms", "timing-wheel-10ms"})
+    String backend;
+
+    private TaskScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void createScheduler() {
+        scheduler = switch (backend) {
+            case "executor" -> new ExecutorTaskScheduler(POOL_SIZE);
+            case "timing-wheel-1ms" -> new TimingWheelTaskScheduler(1L, POOL_SIZE);
+            case "timing-wheel-10ms" -> new TimingWheelTaskScheduler(10L, POOL_SIZE);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public void fireAll() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            scheduler.schedule(fired::countDown, 0L, TimeUnit.MILLISECONDS);
+        }
+        fired.await();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void firingLatency() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        scheduler.schedule(fired::countDown, LATENCY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        fired.await();
+    }
+}
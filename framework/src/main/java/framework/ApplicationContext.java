@@ -0,0 +1,1548 @@
+package framework;
+
+import framework.annotations.*;
+import framework.annotations.EventListener;
+import framework.annotations.Service.Scope;
+import framework.config.ConfigurationChangedEvent;
+import framework.config.ConfigurationWatcher;
+import framework.context.BeanDescriptor;
+import framework.context.BeanLifecycle;
+import framework.context.ContextRegistry;
+import framework.context.DependencyGraph;
+import framework.context.LazyBean;
+import framework.context.Provider;
+import framework.context.ScopedBean;
+import framework.events.FrameworkPublisher;
+import framework.exceptions.*;
+import framework.index.ComponentIndex;
+import framework.index.ContextSnapshot;
+import framework.injection.Dependency;
+import framework.injection.GeneratedContext;
+import framework.injection.InjectionContext;
+import framework.injection.InjectionPlan;
+import framework.metrics.MetricsRegistry;
+import framework.scheduled.Scheduling;
+import framework.startup.StartupTimings;
+import framework.startup.StartupTimings.BeanTimer;
+import framework.utils.PropertyAccessor;
+import jdk.jfr.Event;
+import org.apache.logging.log4j.util.Strings;
+
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A context of services: their instances, the publisher their events go through and the scheduler
+ * running their @Scheduled methods. Any number of contexts can be started in one JVM, e.g. one per
+ * tenant or one per integration test, {@link Framework} is a facade over a single one of them.
+ * <p>
+ * A child context resolves whatever it doesn't have itself from its parent, which has to be started
+ * and can't change anymore. Service classes the parent already has an instance of aren't created
+ * again, so a child only creates what's specific to it and shares the rest. Every context has its
+ * own {@link FrameworkPublisher} though, events don't cross contexts. Property sources and metrics
+ * are shared by all contexts of the JVM.
+ * <p>
+ * {@code ApplicationContext.builder().parent(shared).basePackages("application.tenant").build().start()}
+ */
+public class ApplicationContext implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(ApplicationContext.class.getName());
+    private static final String DEFAULT_SCAN_PACKAGE = "application";
+    private static final String BASE_PACKAGE_KEY = "framework.base-package";
+    private static final String SNAPSHOT_MODE_KEY = "framework.snapshot.mode";
+    private static final String DEFAULT_SNAPSHOT_FILE = "framework-context.snapshot";
+    private static final String DEFAULT_CLASS_LIST_FILE = "framework-classes.lst";
+    private static final int DEFAULT_STARTUP_REPORT_LIMIT = 20;
+    private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final @Nullable ApplicationContext parent;
+    private final List<String> basePackages;
+    private final ComponentScan.Filter[] excludeFilters;
+    private final ClassLoader classLoader;
+    private final ContextRegistry registry;
+    private final Scheduling scheduling = new Scheduling();
+    // started children, closed before their parent
+    private final List<ApplicationContext> children = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, InjectionPlan> injectionPlans = new ConcurrentHashMap<>();
+    private final InjectionContext injectionContext = new AppContextInjectionContext();
+    // @ConfigurationProperties instances by class, rebound in place when the properties file changes
+    private final Map<Class<?>, Object> configurationProperties = new ConcurrentHashMap<>();
+    // lazy instances created before performDI, their fields are injected along with the eager ones.
+    // Its lock also guards the fields below
+    private final List<Object> lazyInstancesPendingInjection = new ArrayList<>();
+    private boolean injectLazyInstancesOnCreation;
+    // lazy instances created before postConstructInstances finished, initialized in creation order with the eager ones
+    private final List<Object> lazyInstancesPendingPostConstruct = new ArrayList<>();
+    private boolean postConstructLazyInstancesOnCreation;
+    // collects bean timings while this context starts
+    private volatile StartupTimings startupTimings = StartupTimings.eventsOnly();
+    private ComponentIndex componentIndex;
+    private @Nullable GeneratedContext generatedContext;
+    // this context's own, the registry would fall back to the parent's
+    private @Nullable FrameworkPublisher frameworkPublisher;
+    private ConfigurationWatcher configurationWatcher;
+    // properties the @ConfigurationProperties beans were last bound to, of a root context watching them
+    private Map<String, String> appliedProperties = Map.of();
+    // instances are destroyed in reverse
+    private List<List<Class<?>>> instanceCreationLevels = List.of();
+    private Thread shutdownHook;
+    private boolean started;
+    private boolean closed;
+
+    private ApplicationContext(Builder builder) {
+        this.parent = builder.parent;
+        this.basePackages = builder.basePackages;
+        this.excludeFilters = builder.excludeFilters;
+        this.classLoader = builder.classLoader != null ? builder.classLoader : getDefaultClassLoader();
+        this.registry = new ContextRegistry(parent != null ? parent.registry : null);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public @Nullable ApplicationContext getParent() {
+        return parent;
+    }
+
+    public boolean isRunning() {
+        return started && !closed;
+    }
+
+    /**
+     * @return the main class's instance if it's a service of this context, null otherwise
+     */
+    @Nullable Object getMainInstance(Class<?> mainClass) throws InstanceCreationWrapperException {
+        Object appInstance = registry.getSingleCandidate(mainClass);
+        return appInstance != null ? unwrap(appInstance) : null;
+    }
+
+    /**
+     * @param constructors           - constructor of every class annotated with @Service that's active for the
+     *                               current profile
+     * @param snapshotCreationLevels - creation levels from a context snapshot, null to build the dependency graph
+     * @return the creation levels instances were created in
+     * @throws InstanceCreationWrapperException - wrapper exception to track all potential
+     *                                          exceptions and to keep method signature clean
+     * @implSpec -> steps:
+     * - build a DependencyGraph out of the constructor parameters of every service class:
+     * A(B b) depends on every service class assignable to B, or only on the one named by @Qualifier
+     * - split the graph into creation levels. level 0 only has no-args constructors, level n
+     * only needs instances from levels before it
+     * - create all instances of a level concurrently on the startup pool
+     * (`framework.startup.parallelism`, 1 creates everything on the calling thread)
+     * - once the whole level is created, add its instances to the app context in class name order,
+     * which keeps the context identical to a sequential run
+     * - proceed with the next level, whose dependencies are now all in the app context
+     * - lazy and scoped classes stay in the graph so that their dependencies come first, but only a
+     * LazyBean or ScopedBean is added to the app context for them
+     * - the levels are kept, instances are initialized in their order and destroyed in reverse
+     */
+    private List<List<Class<?>>> createInstances(Map<Class<?>, Constructor<?>> constructors,
+                                                        @Nullable List<List<Class<?>>> snapshotCreationLevels)
+            throws InstanceCreationWrapperException {
+
+        List<List<Class<?>>> creationLevels = snapshotCreationLevels;
+        if (creationLevels == null) {
+            try {
+                creationLevels = buildDependencyGraph(constructors).getCreationLevels();
+            } catch (CircularDependencyException e) {
+                throw new InstanceCreationWrapperException(e.getMessage(), e);
+            }
+        }
+
+        Set<Class<?>> lazyTypes = new HashSet<>();
+        boolean lazyInitByDefault = isLazyInitByDefault();
+        for (Class<?> serviceClassType : constructors.keySet()) {
+            if (isLazy(serviceClassType, lazyInitByDefault)) {
+                lazyTypes.add(serviceClassType);
+            }
+        }
+
+        int parallelism = getParallelism("framework.startup.parallelism");
+        ForkJoinPool startupPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (List<Class<?>> level : creationLevels) {
+                Object[] instances = createLevel(level, constructors, lazyTypes, startupPool);
+
+                for (int i = 0; i < level.size(); i++) {
+                    Class<?> serviceClassType = level.get(i);
+                    addInstanceToApplicationContext(serviceClassType, instances[i],
+                            getServiceInstanceId(serviceClassType));
+                }
+            }
+        } finally {
+            if (startupPool != null) {
+                startupPool.shutdown();
+            }
+        }
+        return creationLevels;
+    }
+
+    private Map<Class<?>, Constructor<?>> getConstructors(Collection<? extends Class<?>> serviceTypes)
+            throws InstanceCreationWrapperException {
+        Map<Class<?>, Constructor<?>> constructors = new HashMap<>();
+        for (Class<?> serviceClassType : serviceTypes) {
+            Constructor<?> constructor = getPreferredConstructor(serviceClassType);
+            // if no constructor, skip potential interface
+            if (constructor != null) {
+                validateParameterTypes(serviceClassType,
+                        BeanDescriptor.of(serviceClassType).getDependencies(constructor), "constructor");
+                constructors.put(serviceClassType, constructor);
+            }
+        }
+        return constructors;
+    }
+
+    private DependencyGraph buildDependencyGraph(Map<Class<?>, Constructor<?>> constructors) {
+        DependencyGraph dependencyGraph = new DependencyGraph();
+
+        constructors.forEach((serviceClassType, constructor) -> {
+            dependencyGraph.addNode(serviceClassType);
+
+            for (Dependency dependency : BeanDescriptor.of(serviceClassType).getDependencies(constructor)) {
+                // resolved through a proxy or provider on first call, doesn't have to exist yet
+                if (dependency.lazy() && dependency.type().isInterface()
+                        || dependency.kind() == Dependency.Kind.PROVIDER) {
+                    continue;
+                }
+                String qualifier = dependency.qualifier();
+
+                for (Class<?> candidate : constructors.keySet()) {
+                    if (dependency.type().isAssignableFrom(candidate)
+                            && (qualifier == null || qualifier.equals(getServiceInstanceId(candidate)))) {
+                        dependencyGraph.addDependency(serviceClassType, candidate);
+                    }
+                }
+            }
+        });
+
+        return dependencyGraph;
+    }
+
+    /**
+     * Nothing in a level depends on anything else in it, so its instances can be created in any order.
+     * Only reads the app context, which isn't written to until the whole level is done.
+     *
+     * @return instances in the same order as the level
+     */
+    private Object[] createLevel(List<Class<?>> level, Map<Class<?>, Constructor<?>> constructors,
+                                        Set<Class<?>> lazyTypes, @Nullable ForkJoinPool startupPool)
+            throws InstanceCreationWrapperException {
+        Object[] instances = new Object[level.size()];
+
+        if (startupPool == null || level.size() == 1) {
+            for (int i = 0; i < level.size(); i++) {
+                Class<?> serviceClassType = level.get(i);
+                instances[i] = createInstanceOrHolder(serviceClassType, constructors.get(serviceClassType), lazyTypes);
+            }
+            return instances;
+        }
+
+        List<ForkJoinTask<Object>> tasks = level.stream()
+                .map(serviceClassType -> startupPool.submit(() -> createInstanceOrHolder(serviceClassType,
+                        constructors.get(serviceClassType), lazyTypes)))
+                .toList();
+
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                instances[i] = tasks.get(i).get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InstanceCreationWrapperException cause) {
+                    throw cause;
+                }
+                throw new InstanceCreationWrapperException(e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InstanceCreationWrapperException(e.getMessage(), e);
+            }
+        }
+        return instances;
+    }
+
+    // the instance for singletons, a holder that creates them when needed for lazy and scoped classes
+    private Object createInstanceOrHolder(Class<?> serviceClassType, Constructor<?> constructor,
+                                                 Set<Class<?>> lazyTypes) throws InstanceCreationWrapperException {
+        Scope scope = getScope(serviceClassType);
+        if (scope != Scope.SINGLETON) {
+            return createScopedBean(serviceClassType, constructor, scope);
+        }
+        if (lazyTypes.contains(serviceClassType)) {
+            return createLazyBean(serviceClassType, constructor);
+        }
+        return createServiceInstance(serviceClassType, constructor);
+    }
+
+    /**
+     * Constructor handle, constructor dependencies and injection plan are worked out here once,
+     * creating an instance is resolving the dependencies and two handle calls per injection point.
+     */
+    private ScopedBean createScopedBean(Class<?> serviceClassType, Constructor<?> constructor, Scope scope)
+            throws InstanceCreationWrapperException {
+        try {
+            Dependency[] dependencies = BeanDescriptor.of(serviceClassType).getDependencies(constructor);
+            MethodHandle constructorHandle = MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, dependencies.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            boolean generated = generatedContext != null && generatedContext.hasInstantiator(serviceClassType);
+            InjectionPlan plan = getInjectionPlan(serviceClassType);
+
+            return new ScopedBean(serviceClassType, scope, () -> {
+                Object instance;
+                try (BeanTimer ignored = startupTimings.startBean(serviceClassType, StartupTimings.Step.CONSTRUCT)) {
+                    Object[] args = new Object[dependencies.length];
+                    for (int i = 0; i < dependencies.length; i++) {
+                        args[i] = injectionContext.resolve(dependencies[i]);
+                    }
+                    instance = generated
+                            ? generatedContext.newInstance(serviceClassType, args)
+                            : (Object) constructorHandle.invokeExact(args);
+                } catch (InstanceCreationWrapperException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new InstanceCreationWrapperException(e.getMessage(), e);
+                }
+                plan.execute(instance, injectionContext);
+                BeanLifecycle.postConstruct(instance);
+                return instance;
+            });
+        } catch (IllegalAccessException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    private Scope getScope(Class<?> serviceClassType) {
+        BeanDescriptor descriptor = BeanDescriptor.of(serviceClassType);
+        if (descriptor.getScope() == Scope.SINGLETON) {
+            return Scope.SINGLETON;
+        }
+        if (descriptor.needsInstanceOnStartup()) {
+            LOGGER.log(Level.WARNING, "Ignoring scope " + descriptor.getScope() + " of " + serviceClassType.getName()
+                    + " since it has @EventListener or @Scheduled methods, it's a singleton");
+            return Scope.SINGLETON;
+        }
+        return descriptor.getScope();
+    }
+
+    /**
+     * The instance is created by the first lookup that needs it. Created during startup, its fields
+     * are injected by performDI and its @PostConstruct is called by postConstructInstances like every
+     * other instance's, so it doesn't run before the eager instances it depends on are initialized.
+     * Created later it's injected and initialized right away.
+     */
+    private LazyBean createLazyBean(Class<?> serviceClassType, Constructor<?> constructor) {
+        return new LazyBean(serviceClassType, () -> {
+            Object instance = createServiceInstance(serviceClassType, constructor);
+            synchronized (lazyInstancesPendingInjection) {
+                if (!injectLazyInstancesOnCreation) {
+                    lazyInstancesPendingInjection.add(instance);
+                    return instance;
+                }
+            }
+            getInjectionPlan(serviceClassType).execute(instance, injectionContext);
+            synchronized (lazyInstancesPendingInjection) {
+                if (!postConstructLazyInstancesOnCreation) {
+                    lazyInstancesPendingPostConstruct.add(instance);
+                    return instance;
+                }
+            }
+            BeanLifecycle.postConstruct(instance);
+            return instance;
+        });
+    }
+
+    private boolean isLazyInitByDefault() throws InstanceCreationWrapperException {
+        try {
+            return Boolean.TRUE.equals(PropertyAccessor.getValue("framework.lazy-init", Boolean.class));
+        } catch (PropertyConversionException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    // listener and scheduled methods are registered on an instance, so their classes are always created on startup
+    private boolean isLazy(Class<?> serviceClassType, boolean lazyInitByDefault) {
+        BeanDescriptor descriptor = BeanDescriptor.of(serviceClassType);
+        Lazy lazy = descriptor.getLazy();
+        if (lazy != null ? !lazy.value() : !lazyInitByDefault) {
+            return false;
+        }
+
+        boolean needsInstance = descriptor.needsInstanceOnStartup();
+        if (needsInstance && lazy != null) {
+            LOGGER.log(Level.WARNING, "Ignoring @Lazy on " + serviceClassType.getName()
+                    + " since it has @EventListener or @Scheduled methods");
+        }
+        return !needsInstance;
+    }
+
+    private int getParallelism(String key) {
+        String parallelismString = (String) PropertyAccessor.getValueOf(key);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        try {
+            if (!Strings.isEmpty(parallelismString)) {
+                parallelism = Integer.parseInt(parallelismString.trim());
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Ignoring `" + key + "` setting in properties file since it's " +
+                    "not a valid number/integer. Found: " + parallelismString);
+        }
+
+        return Math.max(parallelism, 1);
+    }
+
+    private void addInstanceToApplicationContext(Class<?> serviceClassType, Object instance, String serviceClassId) {
+
+        registerInstanceByNameIdentifier(instance, serviceClassId);
+
+        registerInstanceByType(serviceClassType, instance);
+
+        // map instance to superclass and interface types
+        BeanDescriptor descriptor = BeanDescriptor.of(serviceClassType);
+        descriptor.getSuperClasses().forEach(superclassType -> {
+            registerInstanceByType(superclassType, instance);
+        });
+        descriptor.getInterfaces().forEach(interfaceType -> {
+            registerInstanceByType(interfaceType, instance);
+        });
+
+    }
+
+    private void registerInstanceByNameIdentifier(Object instance, String serviceClassId) {
+        registry.registerByName(serviceClassId, instance);
+    }
+
+    private void registerInstanceByType(Class<?> serviceClassType, Object instance) {
+        registry.registerByType(serviceClassType, instance);
+    }
+
+    /**
+     * @param serviceClass - the parent or containing class for the parameters we're validating
+     * @param parameters   - dependencies of the parameters. Collections and providers of any type are
+     *                     valid, they're empty if nothing of the type is managed
+     * @param paramType    - can be constructor or method i.e. params from a constructor or a method
+     * @return - list of classes that are valid/managed beans in the framework i.e. service instances for now
+     * @throws InstanceCreationWrapperException - wrapper exception to hold any exceptions that might have occurred
+     *                                          during instance creation
+     */
+    private List<? extends Class<?>> validateParameterTypes(Class<?> serviceClass, Dependency[] parameters,
+                                                                   String paramType)
+            throws InstanceCreationWrapperException {
+        try {
+            List<? extends Class<?>> paramClasses = Arrays.stream(parameters)
+                    .filter(dependency -> dependency.kind() == Dependency.Kind.INSTANCE)
+                    .map(Dependency::type)
+                    .filter(this::isAManagedServiceClassType).toList();
+
+            Set<? extends Class<?>> notSupportDependencies = Arrays.stream(parameters)
+                    .filter(dependency -> dependency.kind() == Dependency.Kind.INSTANCE)
+                    .map(Dependency::type)
+                    .filter(type -> !isAManagedServiceClassType(type)).collect(Collectors.toSet());
+
+            if (!notSupportDependencies.isEmpty()) {
+                throw new DependencyTypeNotSupportedOrFoundException(serviceClass, notSupportDependencies, paramType);
+            }
+
+            return paramClasses;
+        } catch (DependencyTypeNotSupportedOrFoundException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    // resolved by the annotation processor if the class is indexed, otherwise from its cached descriptor
+    private Constructor<?> getPreferredConstructor(Class<?> serviceClass) throws InstanceCreationWrapperException {
+        Optional<Constructor<?>> indexedConstructor = componentIndex.getPreferredConstructor(serviceClass);
+        if (indexedConstructor.isPresent()) {
+            return indexedConstructor.get();
+        }
+        return BeanDescriptor.of(serviceClass).getPreferredConstructor();
+    }
+
+    /**
+     * This method should only be called once all dependencies are added to app context else
+     * it will throw an InstanceNotFoundInAppContextException
+     *
+     * @param serviceClassType - class for which we're creating an instance
+     * @param constructor      - preferred constructor of the class, its parameters are injected from the app context
+     * @return newly created instance
+     * @throws InstanceCreationWrapperException - a wrapper exception that helps keep the number of exceptions in the signature low
+     */
+    private Object createServiceInstance(Class<?> serviceClassType, Constructor<?> constructor)
+            throws InstanceCreationWrapperException {
+
+        try (BeanTimer ignored = startupTimings.startBean(serviceClassType, StartupTimings.Step.CONSTRUCT)) {
+            if (constructor.getParameterCount() == 0) {
+                return createInstanceWithNoArgsConstructor(serviceClassType);
+            }
+
+            return createInstanceWithHasArgsConstructor(serviceClassType, constructor);
+        }
+    }
+
+    private Object createInstanceWithHasArgsConstructor(Class<?> serviceClass, Constructor<?> constructor)
+            throws InstanceCreationWrapperException {
+        try {
+            Class<?>[] paramTypes = constructor.getParameterTypes();
+            Object[] dependencies = new Object[paramTypes.length];
+            Dependency[] params = BeanDescriptor.of(serviceClass).getDependencies(constructor);
+            for (int i = 0; i < paramTypes.length; i++) {
+                Object instance = injectionContext.resolve(params[i]);
+
+                validateIsAssignable(paramTypes[i], instance, serviceClass);
+
+                dependencies[i] = instance;
+            }
+
+            if (generatedContext != null && generatedContext.hasInstantiator(serviceClass)) {
+                return newGeneratedInstance(serviceClass, dependencies);
+            }
+            return constructor.newInstance(dependencies);
+
+        } catch (InstantiationException | InvocationTargetException |
+                 IllegalAccessException | DependencyInstanceMismatchException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    private void validateIsAssignable(Class<?> serviceClass, Object instance, Class<?> parentClass)
+            throws DependencyInstanceMismatchException {
+        if (!serviceClass.isAssignableFrom(instance.getClass())) {
+            throw new DependencyInstanceMismatchException(serviceClass, instance, parentClass);
+        }
+    }
+
+    private Object createInstanceWithNoArgsConstructor(Class<?> serviceClass) throws InstanceCreationWrapperException {
+        try {
+            if (generatedContext != null && generatedContext.hasInstantiator(serviceClass)) {
+                return newGeneratedInstance(serviceClass, new Object[0]);
+            }
+            return serviceClass.getConstructor().newInstance();
+        } catch (NoSuchMethodException | InstantiationException | InvocationTargetException |
+                 IllegalAccessException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    private Object newGeneratedInstance(Class<?> serviceClass, Object[] dependencies)
+            throws InstanceCreationWrapperException {
+        try {
+            return generatedContext.newInstance(serviceClass, dependencies);
+        } catch (Exception e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    private String getClassInstanceIdentifier(Class<?> serviceClass) {
+        String className = serviceClass.getSimpleName();
+        String[] name = className.split("");
+        name[0] = name[0].toLowerCase();
+        className = String.join("", name);
+        return className;
+    }
+
+    private boolean isAManagedServiceClassType(Class<?> type) {
+        return registry.isManagedType(type);
+    }
+
+    private String getServiceInstanceId(Class<?> clazz) {
+        return BeanDescriptor.of(clazz).getId();
+    }
+
+    /**
+     * Works out field injection, setter injection and event listener registration for a service class.
+     * Only called once per class, the result is cached in injectionPlans.
+     *
+     * @param serviceClass - class whose annotated members are turned into plan steps
+     * @return plan that can be executed against every instance of the class
+     * @throws InstanceCreationWrapperException - if a setter has unsupported parameters or a member isn't accessible
+     */
+    private InjectionPlan buildInjectionPlan(Class<?> serviceClass) throws InstanceCreationWrapperException {
+        try {
+            InjectionPlan.Builder plan = InjectionPlan.builder(serviceClass);
+            BeanDescriptor descriptor = BeanDescriptor.of(serviceClass);
+            if (Stream.concat(descriptor.getPostConstructMethods().stream(), descriptor.getPreDestroyMethods().stream())
+                    .anyMatch(method -> method.getParameterCount() != 0)) {
+                throw new ArgumentsNotSupportedException("@PostConstruct and @PreDestroy methods can't have arguments");
+            }
+            // validated before the generated injection is chosen, so both reject the same classes
+            for (BeanDescriptor.InjectedMethod injectedMethod : descriptor.getInjectedMethods()) {
+                // validator will throw error if any types aren't autowire enabled
+                validateParameterTypes(serviceClass, injectedMethod.dependencies(), "method");
+            }
+            Map<Method, Class<?>> eventTypes = new LinkedHashMap<>();
+            for (Method method : descriptor.getEventListenerMethods()) {
+                if (method.getParameterCount() != 1) {
+                    throw new ArgumentsNotSupportedException("Event Listener should have only one argument");
+                }
+                eventTypes.put(method, getEventType(method));
+            }
+
+            if (generatedContext != null && generatedContext.hasInjector(serviceClass)) {
+                return plan.injectGenerated(generatedContext).build();
+            }
+
+            for (BeanDescriptor.InjectedField injectedField : descriptor.getInjectedFields()) {
+                plan.injectField(injectedField.field(), injectedField.dependency());
+            }
+            for (BeanDescriptor.PropertyField propertyField : descriptor.getPropertyFields()) {
+                plan.injectProperty(propertyField.field(), propertyField.key());
+            }
+            for (BeanDescriptor.InjectedMethod injectedMethod : descriptor.getInjectedMethods()) {
+                plan.injectSetter(injectedMethod.method(), injectedMethod.dependencies());
+            }
+            for (Map.Entry<Method, Class<?>> listener : eventTypes.entrySet()) {
+                plan.registerEventListener(listener.getKey(), listener.getValue());
+            }
+
+            return plan.build();
+        } catch (IllegalAccessException | ArgumentsNotSupportedException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    // a listener taking List<EventType> receives batches of EventType
+    private Class<?> getEventType(Method listenerMethod) throws ArgumentsNotSupportedException {
+        Class<?> paramType = listenerMethod.getParameterTypes()[0];
+        if (paramType != List.class) {
+            return paramType;
+        }
+
+        Type genericType = listenerMethod.getGenericParameterTypes()[0];
+        if (genericType instanceof ParameterizedType parameterizedType
+                && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+            return elementType;
+        }
+        throw new ArgumentsNotSupportedException("Batch Event Listener " + listenerMethod.getName()
+                + " should declare the event type e.g. List<MyEvent>");
+    }
+
+    private InjectionPlan getInjectionPlan(Class<?> serviceClass) throws InstanceCreationWrapperException {
+        InjectionPlan plan = injectionPlans.get(serviceClass);
+        if (plan == null) {
+            plan = buildInjectionPlan(serviceClass);
+            InjectionPlan existing = injectionPlans.putIfAbsent(serviceClass, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Resolves the dependencies of injection plans against this context and its parents
+     */
+    private class AppContextInjectionContext implements InjectionContext {
+        /**
+         * Lazy instances are injected as a proxy where the declared type is an interface, and
+         * created right away otherwise. @Lazy interface typed injection points get a proxy that
+         * looks the dependency up on first call. Prototypes are created per injection point, thread
+         * and request scoped instances are injected as a proxy calling the current scope's instance
+         * where the declared type is an interface. Collections hold every candidate, resolved the same way.
+         */
+        @Override
+        public Object resolve(Dependency dependency) throws InstanceCreationWrapperException {
+            if (dependency.kind() != Dependency.Kind.INSTANCE) {
+                return resolveAll(dependency);
+            }
+            if (dependency.lazy() && dependency.type().isInterface()) {
+                Dependency resolvedOnFirstCall = new Dependency(dependency.type(), dependency.qualifier());
+                return new LazyBean(dependency.type(), () -> resolve(resolvedOnFirstCall)).getProxy();
+            }
+
+            try {
+                Object instance = dependency.qualifier() != null
+                        ? getInstanceFromContextUsingId(dependency.qualifier(), dependency.type())
+                        : getInstanceFromContextUsingType(dependency.type());
+                return resolveCandidate(instance, dependency.type());
+            } catch (InstanceNotFoundInAppContextException | MultipleCandidatesForInstanceException e) {
+                throw new InstanceCreationWrapperException(e.getMessage(), e);
+            }
+        }
+
+        private Object resolveAll(Dependency dependency) throws InstanceCreationWrapperException {
+            Class<?> type = dependency.type();
+            return switch (dependency.kind()) {
+                case LIST -> List.of(resolveCandidates(registry.getCandidates(type), type));
+                case SET -> Collections.unmodifiableSet(
+                        new LinkedHashSet<>(Arrays.asList(resolveCandidates(registry.getCandidates(type), type))));
+                case MAP -> {
+                    Map<String, Object> instances = new LinkedHashMap<>();
+                    for (Map.Entry<String, Object> candidate : registry.getNamedCandidates(type).entrySet()) {
+                        instances.put(candidate.getKey(), resolveCandidate(candidate.getValue(), type));
+                    }
+                    yield Collections.unmodifiableMap(instances);
+                }
+                case PROVIDER -> new ContextProvider<>(dependency);
+                case INSTANCE -> throw new IllegalArgumentException("Not a collection dependency: " + dependency);
+            };
+        }
+
+        private Object[] resolveCandidates(Object[] candidates, Class<?> type) throws InstanceCreationWrapperException {
+            Object[] instances = new Object[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                instances[i] = resolveCandidate(candidates[i], type);
+            }
+            return instances;
+        }
+
+        private Object resolveCandidate(Object instance, Class<?> type) throws InstanceCreationWrapperException {
+            if (instance instanceof LazyBean lazyBean) {
+                return type.isInterface() ? lazyBean.getProxy() : lazyBean.get();
+            }
+            if (instance instanceof ScopedBean scopedBean) {
+                return type.isInterface() && scopedBean.getScope() != Scope.PROTOTYPE
+                        ? scopedBean.getProxy()
+                        : scopedBean.get();
+            }
+            return instance;
+        }
+
+        @Override
+        public Object resolveProperty(String key, Type type) throws InstanceCreationWrapperException {
+            try {
+                return PropertyAccessor.getValue(key, type);
+            } catch (PropertyConversionException e) {
+                throw new InstanceCreationWrapperException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void registerEventListener(Object instance, Method method, Class<?> paramType)
+                throws InstanceCreationWrapperException {
+            FrameworkPublisher frameworkPublisher = (FrameworkPublisher) resolve(new Dependency(FrameworkPublisher.class, null));
+            try {
+                frameworkPublisher.addEventListener(instance, method, paramType);
+            } catch (IllegalAccessException e) {
+                throw new InstanceCreationWrapperException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public StartupTimings getStartupTimings() {
+            return startupTimings;
+        }
+    }
+
+    /**
+     * Looks its candidates up in the registry on every call until the context is started, then keeps
+     * the registry's arrays, which don't change anymore.
+     */
+    private class ContextProvider<T> implements Provider<T> {
+        private final Dependency dependency;
+        // null until the registry is frozen
+        private volatile Object[] candidates;
+
+        private ContextProvider(Dependency dependency) {
+            this.dependency = dependency;
+        }
+
+        @Override
+        public T get() {
+            Object[] current = getCandidates();
+            try {
+                if (current.length == 0) {
+                    throw dependency.qualifier() != null
+                            ? new InstanceNotFoundInAppContextException(dependency.type(), dependency.qualifier())
+                            : new InstanceNotFoundInAppContextException(dependency.type());
+                }
+                if (current.length > 1) {
+                    throw new MultipleCandidatesForInstanceException(dependency.type(),
+                            new LinkedHashSet<>(Arrays.asList(current)));
+                }
+                return getInstance(current[0]);
+            } catch (InstanceNotFoundInAppContextException | MultipleCandidatesForInstanceException |
+                     InstanceCreationWrapperException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public List<T> getAll() {
+            Object[] current = getCandidates();
+            List<T> instances = new ArrayList<>(current.length);
+            try {
+                for (Object candidate : current) {
+                    instances.add(getInstance(candidate));
+                }
+            } catch (InstanceCreationWrapperException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            return Collections.unmodifiableList(instances);
+        }
+
+        // the instance itself, the provider is what's called on every use
+        @SuppressWarnings("unchecked")
+        private T getInstance(Object candidate) throws InstanceCreationWrapperException {
+            if (candidate instanceof LazyBean lazyBean) {
+                return (T) lazyBean.get();
+            }
+            if (candidate instanceof ScopedBean scopedBean) {
+                return (T) scopedBean.get();
+            }
+            return (T) candidate;
+        }
+
+        private Object[] getCandidates() {
+            Object[] current = candidates;
+            if (current != null) {
+                return current;
+            }
+            if (dependency.qualifier() != null) {
+                Object named = registry.getByName(dependency.qualifier());
+                current = named != null ? new Object[]{named} : new Object[0];
+            } else {
+                current = registry.getCandidates(dependency.type());
+            }
+            if (registry.isFrozen()) {
+                candidates = current;
+            }
+            return current;
+        }
+    }
+
+    private Object getInstanceFromContextUsingId(String instanceId, Class<?> serviceClass)
+            throws InstanceNotFoundInAppContextException {
+
+        Object instance = registry.getByName(instanceId);
+        if (instance == null) {
+            throw new InstanceNotFoundInAppContextException(serviceClass, instanceId);
+        }
+
+        return instance;
+    }
+
+    private Object getInstanceFromContextUsingType(Class<?> serviceClassType)
+            throws InstanceNotFoundInAppContextException, MultipleCandidatesForInstanceException {
+
+        Object instance = registry.getSingleCandidate(serviceClassType);
+        if (instance != null) {
+            return instance;
+        }
+
+        // slow path, only reached when the lookup is about to fail
+        Object[] candidates = registry.getCandidates(serviceClassType);
+        if (candidates.length == 0) {
+            throw new InstanceNotFoundInAppContextException(serviceClassType);
+        }
+        throw new MultipleCandidatesForInstanceException(serviceClassType, new LinkedHashSet<>(Arrays.asList(candidates)));
+    }
+
+    private boolean hasServiceAnnotation(Class<?> clazz) {
+        return BeanDescriptor.of(clazz).isService();
+    }
+
+    private void registerAnnotatedServiceClassTypes(Set<Class<?>> serviceTypes) {
+        Set<Class<?>> filtered = filterByActiveProfile(serviceTypes);
+        registry.registerManagedTypes(filtered);
+
+        serviceTypes.forEach(type -> {
+            BeanDescriptor descriptor = BeanDescriptor.of(type);
+            registry.registerManagedTypes(filterByActiveProfile(descriptor.getSuperClasses()));
+            registry.registerManagedTypes(filterByActiveProfile(descriptor.getInterfaces()));
+        });
+    }
+
+    private Set<Class<?>> filterByActiveProfile(Collection<Class<?>> theServiceClasses) {
+        String activeProfile = (String) PropertyAccessor.getValueOf("profiles.active");
+        return theServiceClasses.stream().filter(theServiceClass -> {
+            String theServiceClassProfile = BeanDescriptor.of(theServiceClass).getProfile();
+            return theServiceClassProfile == null || Objects.equals(activeProfile, theServiceClassProfile);
+        }).collect(Collectors.toSet());
+    }
+
+    // Scan all classes with @ConfigurationProperties
+    // Set fields with valur for prefix+.+getName from application.properties
+    // Add instance to Map. The classes are already filtered by the active profile
+    private void registerConfigurationProperties(Set<Class<?>> theConfigurationClasses)
+            throws InstanceCreationWrapperException {
+        for (Class<?> theConfigurationClass : theConfigurationClasses) {
+            try {
+                Object instance = theConfigurationClass.getConstructor().newInstance();
+                bindConfigurationProperties(theConfigurationClass, instance);
+                configurationProperties.put(theConfigurationClass, instance);
+                registry.registerByType(theConfigurationClass, instance);
+            } catch (PropertyConversionException | ReflectiveOperationException e) {
+                throw new InstanceCreationWrapperException(String.format("""
+                        \nError Message:
+                            Can't create @ConfigurationProperties %s: %s
+                        """, theConfigurationClass.getName(), e.getMessage()), e);
+            }
+        }
+    }
+
+    // every value is converted before the first field is set, so a bad value leaves the instance untouched.
+    // On a reload the fields of the live instance are set one by one, see ConfigurationProperties
+    private void bindConfigurationProperties(Class<?> theConfigurationClass, Object instance)
+            throws PropertyConversionException, IllegalAccessException {
+        String prefix = theConfigurationClass.getAnnotation(ConfigurationProperties.class).prefix();
+        Map<Field, Object> values = new LinkedHashMap<>();
+        for (Field field : BeanDescriptor.of(theConfigurationClass).getInstanceFields()) {
+            String key = prefix + "." + field.getName();
+            Object propertyValue = PropertyAccessor.getValue(key, field.getGenericType());
+            if (propertyValue == null && field.getType().isPrimitive()) {
+                continue;
+            }
+            values.put(field, propertyValue);
+        }
+        for (Map.Entry<Field, Object> value : values.entrySet()) {
+            value.getKey().setAccessible(true);
+            value.getKey().set(instance, value.getValue());
+        }
+        // the new values are written out before the change is published
+        VarHandle.releaseFence();
+    }
+
+    /**
+     * Watches the property files if they're on the file system and `framework.config.watch` isn't false.
+     * On a change the new properties are swapped in, affected @ConfigurationProperties beans are
+     * rebound and a {@link ConfigurationChangedEvent} is published, in this context and its children.
+     * Only root contexts watch, the properties are shared by the whole JVM.
+     */
+    private void watchConfiguration() {
+        if ("false".equals(PropertyAccessor.getValueOf("framework.config.watch"))) {
+            return;
+        }
+        List<Path> propertiesFiles = PropertyAccessor.getPropertiesFiles();
+        if (propertiesFiles.isEmpty()) {
+            return;
+        }
+        appliedProperties = PropertyAccessor.getValues();
+        try {
+            configurationWatcher = ConfigurationWatcher.watch(propertiesFiles, this::reloadConfiguration);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can't watch " + propertiesFiles + " for changes", e);
+        }
+    }
+
+    // another root context may have reloaded the shared properties already, so the changes are
+    // worked out against the ones this context was bound to
+    private void reloadConfiguration() {
+        try {
+            PropertyAccessor.reload();
+        } catch (IOException e) {
+            LOGGER.log(Level.ERROR, "Failed to reload properties, keeping the previous ones", e);
+            return;
+        }
+        Map<String, String> currentProperties = PropertyAccessor.getValues();
+        Set<String> changedKeys = PropertyAccessor.getChangedKeys(appliedProperties, currentProperties);
+        appliedProperties = currentProperties;
+        if (changedKeys.isEmpty()) {
+            return;
+        }
+
+        applyConfigurationChange(new ConfigurationChangedEvent(changedKeys));
+    }
+
+    private void applyConfigurationChange(ConfigurationChangedEvent event) {
+        configurationProperties.forEach((theConfigurationClass, instance) -> {
+            String prefix = theConfigurationClass.getAnnotation(ConfigurationProperties.class).prefix();
+            if (!event.hasChangesUnder(prefix)) {
+                return;
+            }
+            try {
+                bindConfigurationProperties(theConfigurationClass, instance);
+            } catch (PropertyConversionException | IllegalAccessException e) {
+                LOGGER.log(Level.WARNING, "Keeping previous values of " + theConfigurationClass.getName() + ": "
+                        + e.getMessage());
+            }
+        });
+
+        Object frameworkPublisher = registry.getSingleCandidate(FrameworkPublisher.class);
+        if (frameworkPublisher != null) {
+            ((FrameworkPublisher) frameworkPublisher).publishEvent(event);
+        }
+
+        for (ApplicationContext child : children) {
+            child.applyConfigurationChange(event);
+        }
+    }
+
+    /**
+     * @return the instance of the class, created first if it's lazy and wasn't needed yet.
+     * For a scoped class, the instance of the current scope
+     */
+    public Object getInstance(Class<?> serviceClassType)
+            throws InstanceCreationWrapperException {
+        return unwrap(getRawInstanceFromAppContext(serviceClassType));
+    }
+
+    private Object unwrap(Object instance) throws InstanceCreationWrapperException {
+        if (instance instanceof LazyBean lazyBean) {
+            return lazyBean.get();
+        }
+        if (instance instanceof ScopedBean scopedBean) {
+            return scopedBean.get();
+        }
+        return instance;
+    }
+
+    private Object getRawInstanceFromAppContext(Class<?> serviceClassType)
+            throws InstanceCreationWrapperException {
+        try {
+            Object instance;
+
+            String instanceId = BeanDescriptor.of(serviceClassType).getExplicitName();
+            if (instanceId != null) {
+                instance = getInstanceFromContextUsingId(instanceId, serviceClassType);
+            } else {
+                instance = getInstanceFromContextUsingType(serviceClassType);
+            }
+
+            return instance;
+        } catch (InstanceNotFoundInAppContextException | MultipleCandidatesForInstanceException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Shuts the context down, also called by a JVM shutdown hook unless `framework.shutdown-hook=false`:
+     * - the configuration isn't watched anymore
+     * - scheduled methods are cancelled and the scheduler's threads stop once running firings are done
+     * - async event listeners deliver their queues and batch listeners their buffers, events published
+     * from then on are delivered on the publisher's thread
+     * - @PreDestroy methods are called in reverse creation order, i.e. before the ones of the instance's
+     * constructor dependencies. The instances of a creation level don't depend on each other and are
+     * destroyed concurrently (`framework.shutdown.parallelism`)
+     * <p>
+     * Waiting for all of it shares one deadline, `framework.shutdown.timeout` (30s by default); what isn't
+     * done by then is left behind. Child contexts are closed first, each with a deadline of its own.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        if (!started) {
+            closed = true;
+            return;
+        }
+        for (ApplicationContext child : List.copyOf(children).reversed()) {
+            child.close();
+        }
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+        long deadlineNanos = System.nanoTime() + getShutdownTimeout().toNanos();
+
+        stopWatchingConfiguration();
+        if (!scheduling.shutdown(deadlineNanos)) {
+            LOGGER.log(Level.WARNING, "Shutdown timeout passed while scheduled methods were still running");
+        }
+        if (frameworkPublisher != null && !frameworkPublisher.close(deadlineNanos)) {
+            LOGGER.log(Level.WARNING, "Shutdown timeout passed while async event listeners were still draining");
+        }
+        if (!destroyInstances(deadlineNanos)) {
+            LOGGER.log(Level.WARNING, "Shutdown timeout passed before every @PreDestroy method was called");
+        }
+
+        discard();
+    }
+
+    // in creation order, so the constructor dependencies of an instance are initialized first. Lazy
+    // ones created during startup are initialized at their level, or after every eager one if they were
+    // created by a @PostConstruct method of a later level. Lazy ones that weren't created yet and scoped
+    // ones are initialized when they're created
+    private void postConstructInstances() throws InstanceCreationWrapperException {
+        for (List<Class<?>> level : instanceCreationLevels) {
+            for (Class<?> serviceClassType : level) {
+                if (BeanDescriptor.of(serviceClassType).getPostConstructMethods().isEmpty()) {
+                    continue;
+                }
+                Object instance = getSingletonInstance(serviceClassType, false);
+                if (instance != null) {
+                    BeanLifecycle.postConstruct(instance);
+                    continue;
+                }
+                Object lazyInstance = getSingletonInstance(serviceClassType, true);
+                boolean pending;
+                synchronized (lazyInstancesPendingInjection) {
+                    pending = lazyInstance != null && lazyInstancesPendingPostConstruct.removeIf(p -> p == lazyInstance);
+                }
+                if (pending) {
+                    BeanLifecycle.postConstruct(lazyInstance);
+                }
+            }
+        }
+
+        List<Object> lazyInstances;
+        synchronized (lazyInstancesPendingInjection) {
+            postConstructLazyInstancesOnCreation = true;
+            lazyInstances = List.copyOf(lazyInstancesPendingPostConstruct);
+            lazyInstancesPendingPostConstruct.clear();
+        }
+        for (Object lazyInstance : lazyInstances) {
+            BeanLifecycle.postConstruct(lazyInstance);
+        }
+    }
+
+    private boolean destroyInstances(long deadlineNanos) {
+        List<List<Object>> levels = new ArrayList<>();
+        for (List<Class<?>> level : instanceCreationLevels) {
+            List<Object> instances = new ArrayList<>();
+            for (Class<?> serviceClassType : level) {
+                if (BeanDescriptor.of(serviceClassType).getPreDestroyMethods().isEmpty()) {
+                    continue;
+                }
+                Object instance = getSingletonInstance(serviceClassType, true);
+                if (instance != null) {
+                    instances.add(instance);
+                }
+            }
+            levels.add(instances);
+        }
+
+        int parallelism = getParallelism("framework.shutdown.parallelism");
+        ForkJoinPool shutdownPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            return BeanLifecycle.destroy(levels, shutdownPool, deadlineNanos);
+        } finally {
+            if (shutdownPool != null) {
+                shutdownPool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @param createdLazy - also return the instance of a lazy class if it was created
+     * @return the instance of a singleton class, null for scoped classes and lazy ones that aren't included
+     */
+    private @Nullable Object getSingletonInstance(Class<?> serviceClassType, boolean createdLazy) {
+        for (Object candidate : registry.getCandidates(serviceClassType)) {
+            Object instance = createdLazy && candidate instanceof LazyBean lazyBean ? lazyBean.getIfCreated() : candidate;
+            if (instance != null && instance.getClass() == serviceClassType) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    private Duration getShutdownTimeout() {
+        try {
+            Duration timeout = PropertyAccessor.getValue("framework.shutdown.timeout", Duration.class);
+            return timeout != null ? timeout : DEFAULT_SHUTDOWN_TIMEOUT;
+        } catch (PropertyConversionException e) {
+            LOGGER.log(Level.WARNING, "Ignoring `framework.shutdown.timeout` setting in properties file since it's " +
+                    "not a valid duration: " + e.getMessage());
+            return DEFAULT_SHUTDOWN_TIMEOUT;
+        }
+    }
+
+    // closes the context on SIGTERM and System.exit, unless `framework.shutdown-hook=false`
+    private void registerShutdownHook() {
+        if ("false".equals(PropertyAccessor.getValueOf("framework.shutdown-hook"))) {
+            return;
+        }
+        shutdownHook = Thread.ofPlatform().name("framework-shutdown").unstarted(this::close);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private void removeShutdownHook() {
+        if (shutdownHook == null) {
+            return;
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // the JVM is already shutting down, the hook may be what's closing the context
+        }
+        shutdownHook = null;
+    }
+
+    private void stopWatchingConfiguration() {
+        if (configurationWatcher == null) {
+            return;
+        }
+        try {
+            configurationWatcher.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Couldn't stop watching the configuration", e);
+        }
+        configurationWatcher = null;
+    }
+
+    /**
+     * Drops the context without destroying anything, e.g. in benchmarks and tests that start many
+     * contexts in one JVM. Scheduled methods are cancelled, the scheduler is shut down without waiting,
+     * event listeners are closed without waiting for them to drain and the configuration isn't watched
+     * anymore, the instances are left to the garbage collector. See {@link #close()} for an orderly shutdown.
+     */
+    void discard() {
+        for (ApplicationContext child : children) {
+            child.discard();
+        }
+        children.clear();
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+        scheduling.stop();
+        stopWatchingConfiguration();
+        removeShutdownHook();
+        // the flush task of a batch listener and the drainer of an async one keep the instance reachable
+        if (frameworkPublisher != null) {
+            frameworkPublisher.close();
+            frameworkPublisher = null;
+        }
+        registry.clear();
+        injectionPlans.clear();
+        configurationProperties.clear();
+        synchronized (lazyInstancesPendingInjection) {
+            lazyInstancesPendingInjection.clear();
+            injectLazyInstancesOnCreation = false;
+            lazyInstancesPendingPostConstruct.clear();
+            postConstructLazyInstancesOnCreation = false;
+        }
+        componentIndex = null;
+        generatedContext = null;
+        instanceCreationLevels = List.of();
+        closed = true;
+    }
+
+    /**
+     * Creates the instances of the context, injects them and starts their @Scheduled methods. A context
+     * is started once, a closed one can't be started again.
+     *
+     * @return this context
+     */
+    public synchronized ApplicationContext start() {
+        if (started || closed) {
+            throw new IllegalStateException("Application context was already started");
+        }
+        started = true;
+        try {
+            StartupTimings timings = StartupTimings.start(isStartupReportEnabled());
+            startupTimings = timings;
+            // a snapshot is of the root context, children are always discovered
+            String snapshotMode = parent == null ? (String) PropertyAccessor.getValueOf(SNAPSHOT_MODE_KEY) : null;
+            ContextSnapshot snapshot = null;
+            if ("load".equals(snapshotMode)) {
+                timings.phase("read-snapshot");
+                snapshot = ContextSnapshot.read(getSnapshotFile(), getActiveProfile(), getScanScope(), classLoader)
+                        .orElse(null);
+            }
+
+            timings.phase("component-index");
+            componentIndex = snapshot != null ? snapshot.getComponentIndex() : loadComponentIndex();
+            generatedContext = loadGeneratedContext();
+
+            Set<Class<?>> serviceTypes = withoutParentInstances(filterByActiveProfile(componentIndex.getServiceTypes()));
+            Set<Class<?>> configurationTypes =
+                    withoutParentInstances(filterByActiveProfile(componentIndex.getConfigurationTypes()));
+
+            timings.phase("register-configuration-properties");
+            registerConfigurationProperties(configurationTypes);
+
+            registerInfrastructureInstances();
+
+            timings.phase("register-service-types");
+            if (snapshot != null) {
+                registry.registerManagedTypes(snapshot.getManagedTypes());
+            } else {
+                registerAnnotatedServiceClassTypes(serviceTypes);
+            }
+
+            timings.phase("create-instances");
+            Map<Class<?>, Constructor<?>> constructors = getConstructors(serviceTypes);
+            List<List<Class<?>>> creationLevels = createInstances(constructors,
+                    snapshot != null ? snapshot.getCreationLevels() : null);
+            instanceCreationLevels = creationLevels;
+
+            timings.phase("perform-di");
+            performDI();
+
+            // from here on the context is only read, possibly from many threads
+            registry.freeze();
+
+            if ("train".equals(snapshotMode)) {
+                timings.phase("write-snapshot");
+                writeSnapshot(ContextSnapshot.capture(getActiveProfile(), getScanScope(), componentIndex,
+                        serviceTypes, configurationTypes, registry.getManagedTypes(), constructors, creationLevels),
+                        classLoader);
+            }
+
+            timings.phase("post-construct");
+            postConstructInstances();
+
+            timings.phase("schedule");
+            scheduling.trigger(getServiceAnnotatedClasses(), this);
+
+            // a child is closed with its parent, and rebound when the parent sees the configuration change
+            if (parent == null) {
+                timings.phase("watch-configuration");
+                watchConfiguration();
+
+                timings.phase("register-metrics");
+                registerMetricsMBean();
+
+                timings.phase("register-shutdown-hook");
+                registerShutdownHook();
+            } else {
+                parent.children.add(this);
+            }
+
+            timings.finish(getStartupReportLimit());
+
+        } catch (Exception e) {
+            // scheduled jobs, the configuration watcher and the shutdown hook may be running already
+            discard();
+            throw new ContextStartupException(e);
+        } finally {
+            startupTimings.stop();
+            startupTimings = StartupTimings.eventsOnly();
+        }
+        return this;
+    }
+
+    // a child creates only what its parent doesn't have an instance of yet
+    private Set<Class<?>> withoutParentInstances(Set<Class<?>> types) {
+        if (parent == null) {
+            return types;
+        }
+        return types.stream()
+                .filter(type -> !parent.registry.hasCandidates(type))
+                .collect(Collectors.toSet());
+    }
+
+    // counters and latencies of events and scheduled jobs over JMX, unless `framework.metrics.jmx=false`
+    private void registerMetricsMBean() {
+        if ("false".equals(PropertyAccessor.getValueOf("framework.metrics.jmx"))) {
+            return;
+        }
+        try {
+            MetricsRegistry.getDefault().registerMBean();
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Metrics aren't available over JMX", e);
+        }
+    }
+
+    // `framework.startup.report=true` logs phase and bean timings once the context is up
+    private boolean isStartupReportEnabled() throws InstanceCreationWrapperException {
+        try {
+            return Boolean.TRUE.equals(PropertyAccessor.getValue("framework.startup.report", Boolean.class));
+        } catch (PropertyConversionException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    private int getStartupReportLimit() throws InstanceCreationWrapperException {
+        try {
+            Integer limit = PropertyAccessor.getValue("framework.startup.report.limit", Integer.class);
+            return limit != null ? limit : DEFAULT_STARTUP_REPORT_LIMIT;
+        } catch (PropertyConversionException e) {
+            throw new InstanceCreationWrapperException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Training run, `framework.snapshot.mode=train`: saves what this startup resolved, for startups with
+     * `framework.snapshot.mode=load` to skip discovery, and the application's class list for an AppCDS archive
+     */
+    private void writeSnapshot(ContextSnapshot snapshot, ClassLoader classLoader) throws IOException {
+        Path snapshotFile = getSnapshotFile();
+        snapshot.write(snapshotFile, classLoader);
+
+        Object classListFile = PropertyAccessor.getValueOf("framework.snapshot.class-list");
+        Path classList = Path.of(classListFile != null ? (String) classListFile : DEFAULT_CLASS_LIST_FILE);
+        snapshot.writeClassList(classList, classLoader);
+        LOGGER.log(Level.INFO, "Wrote context snapshot " + snapshotFile + " and class list " + classList);
+    }
+
+    private Path getSnapshotFile() {
+        Object snapshotFile = PropertyAccessor.getValueOf("framework.snapshot.file");
+        return Path.of(snapshotFile != null ? (String) snapshotFile : DEFAULT_SNAPSHOT_FILE);
+    }
+
+    // base packages and exclude filters, a snapshot taken with another scope has other types
+    private String getScanScope() {
+        StringJoiner scanScope = new StringJoiner(";");
+        scanScope.add(String.join(",", getBasePackages()));
+        for (ComponentScan.Filter filter : excludeFilters) {
+            scanScope.add(filter.type() + Arrays.stream(filter.classes()).map(Class::getName).toList().toString()
+                    + Arrays.toString(filter.pattern()));
+        }
+        return scanScope.toString();
+    }
+
+    private String getActiveProfile() {
+        Object activeProfile = PropertyAccessor.getValueOf("profiles.active");
+        return activeProfile != null ? (String) activeProfile : "";
+    }
+
+    private static ClassLoader getDefaultClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : ApplicationContext.class.getClassLoader();
+    }
+
+    // framework provided services that can be injected like any application service
+    private void registerInfrastructureInstances() {
+        frameworkPublisher = new FrameworkPublisher();
+        registry.registerManagedTypes(Set.of(FrameworkPublisher.class));
+        addInstanceToApplicationContext(FrameworkPublisher.class, frameworkPublisher,
+                getServiceInstanceId(FrameworkPublisher.class));
+    }
+
+    // constructor calls and injection generated by the annotation processor, `framework.aot.enabled=false`
+    // falls back to reflection
+    private @Nullable GeneratedContext loadGeneratedContext() {
+        if ("false".equals(PropertyAccessor.getValueOf("framework.aot.enabled"))) {
+            return null;
+        }
+        return GeneratedContext.load(classLoader).orElse(null);
+    }
+
+    // compile time index if the application was built with the framework's annotation processor,
+    // otherwise a scan of the base packages' class files on the startup pool (`framework.startup.parallelism`)
+    private ComponentIndex loadComponentIndex() throws IOException, ClassNotFoundException {
+        List<String> basePackages = getBasePackages();
+        Optional<ComponentIndex> index = ComponentIndex.load(classLoader);
+        if (index.isPresent()) {
+            return index.get().restrictTo(basePackages, excludeFilters);
+        }
+
+        List<String> scanPackages = basePackages.isEmpty() ? List.of(DEFAULT_SCAN_PACKAGE) : basePackages;
+        int parallelism = getParallelism("framework.startup.parallelism");
+        ForkJoinPool scanPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            return ComponentIndex.scan(classLoader, scanPackages, scanPool).restrictTo(List.of(), excludeFilters);
+        } finally {
+            if (scanPool != null) {
+                scanPool.shutdown();
+            }
+        }
+    }
+
+    // the builder's base packages, otherwise the comma separated `framework.base-package`, empty for all
+    private List<String> getBasePackages() {
+        if (!basePackages.isEmpty()) {
+            return basePackages;
+        }
+        String basePackageString = (String) PropertyAccessor.getValueOf(BASE_PACKAGE_KEY);
+        if (Strings.isEmpty(basePackageString)) {
+            return List.of();
+        }
+        return Arrays.stream(basePackageString.split(","))
+                .map(String::trim)
+                .filter(basePackage -> !basePackage.isEmpty())
+                .toList();
+    }
+
+    public void performDI() throws InstanceCreationWrapperException {
+        for (Class<?> serviceClassType : getServiceAnnotatedClasses()) {
+
+            InjectionPlan plan = getInjectionPlan(serviceClassType);
+            if (plan.isEmpty()) {
+                continue;
+            }
+
+            Object parentClassInstance = getRawInstanceFromAppContext(serviceClassType);
+            // lazy instances that weren't needed yet and scoped ones are injected when they're created
+            if (parentClassInstance instanceof LazyBean || parentClassInstance instanceof ScopedBean) {
+                continue;
+            }
+
+            plan.execute(parentClassInstance, injectionContext);
+        }
+
+        List<Object> lazyInstances;
+        synchronized (lazyInstancesPendingInjection) {
+            injectLazyInstancesOnCreation = true;
+            lazyInstances = List.copyOf(lazyInstancesPendingInjection);
+            lazyInstancesPendingInjection.clear();
+        }
+        for (Object lazyInstance : lazyInstances) {
+            getInjectionPlan(lazyInstance.getClass()).execute(lazyInstance, injectionContext);
+            synchronized (lazyInstancesPendingInjection) {
+                lazyInstancesPendingPostConstruct.add(lazyInstance);
+            }
+        }
+    }
+
+    private List<Class<?>> getServiceAnnotatedClasses() {
+        return registry.getManagedTypes()
+                .stream()
+                .filter(this::hasServiceAnnotation)
+                .toList();
+    }
+
+    public static class Builder {
+        private @Nullable ApplicationContext parent;
+        private List<String> basePackages = List.of();
+        private ComponentScan.Filter[] excludeFilters = new ComponentScan.Filter[0];
+        private @Nullable ClassLoader classLoader;
+
+        private Builder() {
+        }
+
+        /**
+         * @param parent - started context whose instances the new one can be injected with
+         */
+        public Builder parent(ApplicationContext parent) {
+            if (!parent.isRunning()) {
+                throw new IllegalArgumentException("Parent context has to be started and not closed");
+            }
+            this.parent = parent;
+            return this;
+        }
+
+        /**
+         * @param basePackages - packages, subpackages included, whose services make up the context.
+         *                     `framework.base-package` by default
+         */
+        public Builder basePackages(String... basePackages) {
+            this.basePackages = List.of(basePackages);
+            return this;
+        }
+
+        /**
+         * @param excludeFilters - services and configuration properties matching any of them are left out
+         */
+        public Builder excludeFilters(ComponentScan.Filter... excludeFilters) {
+            this.excludeFilters = excludeFilters.clone();
+            return this;
+        }
+
+        /**
+         * Takes base packages and exclude filters from the class's @ComponentScan, nothing if it has none.
+         * Base packages default to the class's package
+         *
+         * @param annotatedClass - usually the application's main class
+         */
+        public Builder componentScan(Class<?> annotatedClass) {
+            ComponentScan componentScan = annotatedClass.getAnnotation(ComponentScan.class);
+            if (componentScan == null) {
+                return this;
+            }
+            String[] basePackages = componentScan.basePackages();
+            return basePackages(basePackages.length > 0 ? basePackages : new String[]{annotatedClass.getPackageName()})
+                    .excludeFilters(componentScan.excludeFilters());
+        }
+
+        /**
+         * @param classLoader - loader of the component index and the service classes, the thread's
+         *                    context class loader by default
+         */
+        public Builder classLoader(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+            return this;
+        }
+
+        public ApplicationContext build() {
+            return new ApplicationContext(this);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package framework.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Where the services of the context are, on the main class passed to {@code Framework.run}.
+ * Without it every indexed service is used, or the `application` package is scanned.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ComponentScan {
+    /**
+     * Packages, subpackages included, whose services and configuration properties make up the context.
+     * The package of the annotated class if empty
+     */
+    String[] basePackages() default {};
+
+    /**
+     * Classes in the base packages that are left out anyway
+     */
+    Filter[] excludeFilters() default {};
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({})
+    @interface Filter {
+        FilterType type() default FilterType.ANNOTATION;
+
+        /**
+         * Annotations for {@link FilterType#ANNOTATION}, supertypes for {@link FilterType#ASSIGNABLE_TYPE}
+         */
+        Class<?>[] classes() default {};
+
+        /**
+         * Regular expressions matched against the fully qualified class name for {@link FilterType#REGEX}
+         */
+        String[] pattern() default {};
+    }
+
+    enum FilterType {
+        // classes annotated with one of the classes
+        ANNOTATION,
+        // classes assignable to one of the classes
+        ASSIGNABLE_TYPE,
+        // classes whose name matches one of the patterns
+        REGEX
+    }
+}
@@ -5,6 +5,15 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Binds the properties under the prefix to the fields of the class, by field name.
+ * <p>
+ * When the watched configuration changes, the fields of the existing instance are rebound from the
+ * watcher thread. That isn't atomic across fields: a thread reading the fields meanwhile may see some
+ * old and some new values, and one that doesn't synchronize with the watcher may keep seeing old ones
+ * for a while. A listener of {@code ConfigurationChangedEvent} runs after the rebinding and, synchronous
+ * or async, sees all of the new values; a field that has to be consistent with others can be copied there.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface ConfigurationProperties {
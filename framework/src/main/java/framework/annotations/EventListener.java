@@ -8,4 +8,35 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface EventListener {
+    /**
+     * Deliver events on the listener's own virtual thread instead of the publisher's thread.
+     * Not supported for batch listeners, their batches are delivered by the flushing thread
+     */
+    boolean async() default false;
+
+    /**
+     * Events an async listener can have waiting before {@link #backpressure()} applies
+     */
+    int queueCapacity() default 1024;
+
+    Backpressure backpressure() default Backpressure.BLOCK;
+
+    /**
+     * For listeners taking a {@code List<EventType>}: deliver once this many events are buffered
+     */
+    int batchSize() default 100;
+
+    /**
+     * For listeners taking a {@code List<EventType>}: deliver whatever is buffered at least this often
+     */
+    long batchWindowMillis() default 1000L;
+
+    enum Backpressure {
+        // publisher waits until the listener has room
+        BLOCK,
+        // oldest waiting event is discarded to make room
+        DROP_OLDEST,
+        // publisher delivers the event itself, synchronously
+        CALLER_RUNS
+    }
 }
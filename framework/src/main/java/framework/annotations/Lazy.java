@@ -0,0 +1,19 @@
+package framework.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * On a service class: the instance is only created when it's first needed, instead of on startup.
+ * `framework.lazy-init=true` makes every service lazy, @Lazy(false) opts a class out again.
+ * <p>
+ * On a field or parameter of an interface type: a proxy is injected that resolves the dependency on
+ * first call, which also breaks constructor dependency cycles.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.PARAMETER})
+public @interface Lazy {
+    boolean value() default true;
+}
@@ -0,0 +1,15 @@
+package framework.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Called without arguments once the instance is created and all of its dependencies are injected.
+ * Startup fails if it throws. Called on every instance of a scoped class as well.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PostConstruct {
+}
@@ -0,0 +1,16 @@
+package framework.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Called without arguments when the context is closed, after scheduled methods stopped and async
+ * event listeners drained their queues. Instances are destroyed before their constructor dependencies.
+ * Only singletons are destroyed, lazy ones if they were created.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PreDestroy {
+}
@@ -8,7 +8,49 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Scheduled {
+    /**
+     * Milliseconds between the starts of two runs
+     */
     long fixedRate() default -1L;
 
+    /**
+     * Milliseconds between the end of one run and the start of the next
+     */
+    long fixedDelay() default -1L;
+
+    /**
+     * Milliseconds before the first run of a fixedRate or fixedDelay method
+     */
+    long initialDelay() default 0L;
+
+    /**
+     * Six field cron expression "second minute hour day-of-month month day-of-week", e.g. "0 0/5 9-17 * * MON-FRI".
+     * The old two field "seconds minutes" form is still accepted and runs at that fixed interval.
+     */
     String cron() default "";
+
+    /**
+     * Time zone the cron expression is evaluated in, the system default if empty
+     */
+    String zone() default "";
+
+    /**
+     * What happens when a fixedRate or cron run is due while the previous one is still running
+     */
+    Overlap overlap() default Overlap.QUEUE;
+
+    /**
+     * Run every firing on a new virtual thread instead of a scheduler pool thread, for methods that
+     * mostly wait on I/O. `scheduling.virtual-threads=true` turns it on for all methods
+     */
+    boolean virtualThread() default false;
+
+    enum Overlap {
+        // the due run is dropped and counted as skipped
+        SKIP,
+        // the due run starts as soon as the previous one finishes, without holding a thread while waiting
+        QUEUE,
+        // the due run starts right away, next to the previous one
+        CONCURRENT
+    }
 }
@@ -9,4 +9,29 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 public @interface Service {
     String value() default "";
+
+    /**
+     * How many instances of the class there are, see {@link Scope}
+     */
+    Scope scope() default Scope.SINGLETON;
+
+    enum Scope {
+        /**
+         * One instance for the whole app context
+         */
+        SINGLETON,
+        /**
+         * A new instance for every injection point and every lookup
+         */
+        PROTOTYPE,
+        /**
+         * One instance per thread. Interface typed injection points get a proxy calling the current thread's instance
+         */
+        THREAD,
+        /**
+         * One instance per {@link framework.context.RequestScope#run(Runnable)} call. Interface typed
+         * injection points get a proxy calling the current request's instance
+         */
+        REQUEST
+    }
 }
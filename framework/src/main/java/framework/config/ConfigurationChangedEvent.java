@@ -0,0 +1,25 @@
+package framework.config;
+
+import java.util.Set;
+
+/**
+ * Published through the FrameworkPublisher after the properties file changed on disk and the new
+ * properties were swapped in. @ConfigurationProperties beans are already rebound when listeners get it.
+ *
+ * @param changedKeys - keys that were added, removed or changed
+ */
+public record ConfigurationChangedEvent(Set<String> changedKeys) {
+
+    /**
+     * @param prefix - e.g. "myapp.mail"
+     * @return true if any changed key is the prefix or starts with "prefix."
+     */
+    public boolean hasChangesUnder(String prefix) {
+        for (String key : changedKeys) {
+            if (key.equals(prefix) || key.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
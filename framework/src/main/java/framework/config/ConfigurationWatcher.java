@@ -0,0 +1,92 @@
+package framework.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.*;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches property files and calls back once one of them changed.
+ * <p>
+ * The files' directories are registered with a {@link WatchService} and a single daemon thread waits
+ * for its events. Editors often write a file in several steps (truncate, write, rename), so events
+ * arriving within {@link #QUIET_PERIOD_MILLIS} of each other result in one callback.
+ */
+public class ConfigurationWatcher implements Closeable {
+    private static final System.Logger LOGGER = System.getLogger(ConfigurationWatcher.class.getName());
+    private static final long QUIET_PERIOD_MILLIS = 200L;
+
+    private final Set<Path> files = new HashSet<>();
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private ConfigurationWatcher(Collection<Path> files, Runnable onChange) throws IOException {
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>();
+        for (Path file : files) {
+            Path absoluteFile = file.toAbsolutePath();
+            this.files.add(absoluteFile);
+            if (directories.add(absoluteFile.getParent())) {
+                absoluteFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+        this.thread = Thread.ofPlatform().daemon().name("config-watcher").unstarted(this::watch);
+    }
+
+    /**
+     * @param files    - files to watch
+     * @param onChange - called on the watcher thread after any of the files changed
+     */
+    public static ConfigurationWatcher watch(Collection<Path> files, Runnable onChange) throws IOException {
+        ConfigurationWatcher watcher = new ConfigurationWatcher(files, onChange);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!hasFileEvent(watchService.take())) {
+                    continue;
+                }
+                // wait until the file has been quiet for a while
+                WatchKey next;
+                while ((next = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    hasFileEvent(next);
+                }
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.ERROR, "Failed to reload " + files, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private boolean hasFileEvent(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || files.contains(directory.resolve((Path) event.context()))) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,196 @@
+package framework.config;
+
+import framework.exceptions.PropertyConversionException;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns raw property strings into the type of the field they're bound to.
+ * <p>
+ * Converters for the basic types are set up once; converters for enums and for generic collection
+ * types are composed on first use and cached per target {@link Type}, so converting never reflects
+ * on the target type twice.
+ */
+public class ConversionService {
+    private static final Map<Class<?>, Converter> BASIC_CONVERTERS = Map.ofEntries(
+            Map.entry(String.class, value -> value),
+            Map.entry(Object.class, value -> value),
+            Map.entry(int.class, value -> Integer.parseInt(value.trim())),
+            Map.entry(Integer.class, value -> Integer.parseInt(value.trim())),
+            Map.entry(long.class, value -> Long.parseLong(value.trim())),
+            Map.entry(Long.class, value -> Long.parseLong(value.trim())),
+            Map.entry(short.class, value -> Short.parseShort(value.trim())),
+            Map.entry(Short.class, value -> Short.parseShort(value.trim())),
+            Map.entry(byte.class, value -> Byte.parseByte(value.trim())),
+            Map.entry(Byte.class, value -> Byte.parseByte(value.trim())),
+            Map.entry(double.class, value -> Double.parseDouble(value.trim())),
+            Map.entry(Double.class, value -> Double.parseDouble(value.trim())),
+            Map.entry(float.class, value -> Float.parseFloat(value.trim())),
+            Map.entry(Float.class, value -> Float.parseFloat(value.trim())),
+            Map.entry(boolean.class, ConversionService::parseBoolean),
+            Map.entry(Boolean.class, ConversionService::parseBoolean),
+            Map.entry(char.class, ConversionService::parseCharacter),
+            Map.entry(Character.class, ConversionService::parseCharacter),
+            Map.entry(Duration.class, ConversionService::parseDuration),
+            Map.entry(DataSize.class, DataSize::parse)
+    );
+
+    private final Map<Type, Converter> converters = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    private interface Converter {
+        Object convert(String value);
+    }
+
+    /**
+     * @param value      - raw property value
+     * @param targetType - type to convert to, generic types like List&lt;Duration&gt; included
+     * @return the converted value, boxed for primitive targets
+     */
+    public Object convert(String value, Type targetType) throws PropertyConversionException {
+        Converter converter = getConverter(targetType);
+        try {
+            return converter.convert(value);
+        } catch (RuntimeException e) {
+            throw new PropertyConversionException(value, targetType, e);
+        }
+    }
+
+    public boolean canConvert(Type targetType) {
+        try {
+            getConverter(targetType);
+            return true;
+        } catch (PropertyConversionException e) {
+            return false;
+        }
+    }
+
+    private Converter getConverter(Type targetType) throws PropertyConversionException {
+        Converter converter = converters.get(targetType);
+        if (converter == null) {
+            converter = createConverter(targetType);
+            converters.putIfAbsent(targetType, converter);
+        }
+        return converter;
+    }
+
+    private Converter createConverter(Type targetType) throws PropertyConversionException {
+        if (targetType instanceof Class<?> targetClass) {
+            Converter basic = BASIC_CONVERTERS.get(targetClass);
+            if (basic != null) {
+                return basic;
+            }
+            if (targetClass.isEnum()) {
+                return enumConverter(targetClass);
+            }
+            if (targetClass.isArray()) {
+                Class<?> componentType = targetClass.getComponentType();
+                Converter elementConverter = getConverter(componentType);
+                return value -> {
+                    List<String> elements = split(value);
+                    Object array = Array.newInstance(componentType, elements.size());
+                    for (int i = 0; i < elements.size(); i++) {
+                        Array.set(array, i, elementConverter.convert(elements.get(i)));
+                    }
+                    return array;
+                };
+            }
+        }
+
+        if (targetType instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() instanceof Class<?> rawType
+                && Collection.class.isAssignableFrom(rawType)) {
+            Converter elementConverter = getConverter(parameterizedType.getActualTypeArguments()[0]);
+            boolean isSet = Set.class.isAssignableFrom(rawType);
+            return value -> {
+                List<Object> converted = new ArrayList<>();
+                for (String element : split(value)) {
+                    converted.add(elementConverter.convert(element));
+                }
+                return isSet
+                        ? Collections.unmodifiableSet(new LinkedHashSet<>(converted))
+                        : Collections.unmodifiableList(converted);
+            };
+        }
+
+        throw new PropertyConversionException(targetType);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter enumConverter(Class<?> enumClass) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Object constant : enumClass.getEnumConstants()) {
+            constants.put(((Enum) constant).name().toUpperCase(Locale.ROOT), constant);
+        }
+        return value -> {
+            // relaxed: "fast", "FAST" and "Fast" all match FAST, dashes match underscores
+            Object constant = constants.get(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            if (constant == null) {
+                throw new IllegalArgumentException("No constant " + value + " in " + enumClass.getName());
+            }
+            return constant;
+        };
+    }
+
+    private static List<String> split(String value) {
+        if (value.isBlank()) {
+            return List.of();
+        }
+        List<String> elements = new ArrayList<>();
+        for (String element : value.split(",")) {
+            elements.add(element.trim());
+        }
+        return elements;
+    }
+
+    private static Object parseBoolean(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "true", "yes", "on", "1" -> Boolean.TRUE;
+            case "false", "no", "off", "0" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException("Not a boolean: " + value);
+        };
+    }
+
+    private static Object parseCharacter(String value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Expected a single character but got " + value.length());
+        }
+        return value.charAt(0);
+    }
+
+    /**
+     * Accepts ISO-8601 ("PT10S") and the short forms "500ms", "10s", "5m", "2h", "1d".
+     * A plain number is milliseconds.
+     */
+    private static Object parseDuration(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        if (normalized.startsWith("p") || normalized.startsWith("-p")) {
+            return Duration.parse(normalized.toUpperCase(Locale.ROOT));
+        }
+        if (normalized.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(normalized.substring(0, normalized.length() - 2).trim()));
+        }
+        if (normalized.endsWith("ns")) {
+            return Duration.ofNanos(Long.parseLong(normalized.substring(0, normalized.length() - 2).trim()));
+        }
+
+        char unit = normalized.charAt(normalized.length() - 1);
+        if (Character.isDigit(unit)) {
+            return Duration.ofMillis(Long.parseLong(normalized));
+        }
+        long amount = Long.parseLong(normalized.substring(0, normalized.length() - 1).trim());
+        return switch (unit) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            case 'd' -> Duration.ofDays(amount);
+            default -> throw new IllegalArgumentException("Unknown duration unit '" + unit + "'");
+        };
+    }
+}
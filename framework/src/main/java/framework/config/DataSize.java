@@ -0,0 +1,40 @@
+package framework.config;
+
+import java.util.Locale;
+
+/**
+ * Amount of bytes, parsed from values like "512", "64KB", "10MB" or "1GB". Units are binary,
+ * i.e. 1KB is 1024 bytes, and a plain number means bytes.
+ */
+public record DataSize(long bytes) {
+    private static final String[] UNITS = {"TB", "GB", "MB", "KB", "B"};
+    private static final long[] MULTIPLIERS = {1L << 40, 1L << 30, 1L << 20, 1L << 10, 1L};
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize parse(String value) {
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        for (int i = 0; i < UNITS.length; i++) {
+            if (normalized.endsWith(UNITS[i])) {
+                String amount = normalized.substring(0, normalized.length() - UNITS[i].length()).trim();
+                return new DataSize(Math.multiplyExact(Long.parseLong(amount), MULTIPLIERS[i]));
+            }
+        }
+        return new DataSize(Long.parseLong(normalized));
+    }
+
+    public long toKilobytes() {
+        return bytes >> 10;
+    }
+
+    public long toMegabytes() {
+        return bytes >> 20;
+    }
+
+    @Override
+    public String toString() {
+        return bytes + "B";
+    }
+}
@@ -0,0 +1,155 @@
+package framework.config;
+
+import framework.exceptions.ResourcePropertiesNotFoundException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.System.Logger.Level;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The ordered chain of places properties come from, highest precedence first:
+ * <ol>
+ *     <li>command line arguments {@code --key=value} ({@code --key} alone is "true")</li>
+ *     <li>system properties</li>
+ *     <li>environment variables</li>
+ *     <li>{@code application-{profile}.properties} of the active profile</li>
+ *     <li>{@code application.properties}</li>
+ * </ol>
+ * {@link #flatten()} merges the chain into a single map, so looking a property up is one hash
+ * lookup instead of a walk through the sources.
+ * <p>
+ * An environment variable overrides a key from the files if its name is the key in upper case
+ * with dots and dashes replaced by underscores ({@code SCHEDULING_POOL_SIZE} for
+ * {@code scheduling.pool.size}). Other environment variables are added in lower case with
+ * underscores replaced by dots.
+ */
+public class PropertySources {
+    private static final System.Logger LOGGER = System.getLogger(PropertySources.class.getName());
+    public static final String BASE_RESOURCE = "application.properties";
+    public static final String PROFILE_KEY = "profiles.active";
+
+    private final ClassLoader classLoader;
+    private final Map<String, String> commandLineProperties;
+
+    public PropertySources(ClassLoader classLoader, String... args) {
+        this.classLoader = classLoader;
+        this.commandLineProperties = parseCommandLine(args);
+    }
+
+    public Map<String, String> flatten() throws IOException {
+        Map<String, String> environment = System.getenv();
+        Map<String, String> systemProperties = new HashMap<>();
+        Properties properties = System.getProperties();
+        properties.stringPropertyNames().forEach(key -> systemProperties.put(key, properties.getProperty(key)));
+
+        Map<String, String> flattened = new HashMap<>();
+        Optional<Map<String, String>> base = read(BASE_RESOURCE);
+        if (base.isEmpty()) {
+            ResourcePropertiesNotFoundException e = new ResourcePropertiesNotFoundException();
+            LOGGER.log(Level.WARNING, e.getMessage(), e);
+        }
+        base.ifPresent(flattened::putAll);
+
+        String profile = firstNonNull(commandLineProperties.get(PROFILE_KEY), systemProperties.get(PROFILE_KEY),
+                environment.get(toEnvironmentName(PROFILE_KEY)), flattened.get(PROFILE_KEY));
+        if (profile != null && !profile.isBlank()) {
+            read(getProfileResource(profile)).ifPresent(flattened::putAll);
+        }
+
+        for (Map.Entry<String, String> variable : environment.entrySet()) {
+            flattened.putIfAbsent(variable.getKey().toLowerCase(Locale.ROOT).replace('_', '.'), variable.getValue());
+        }
+        for (String key : List.copyOf(flattened.keySet())) {
+            String value = environment.get(toEnvironmentName(key));
+            if (value != null) {
+                flattened.put(key, value);
+            }
+        }
+
+        flattened.putAll(systemProperties);
+        flattened.putAll(commandLineProperties);
+        return flattened;
+    }
+
+    /**
+     * @return the property files of the chain that exist on the file system, i.e. can be watched
+     */
+    public List<Path> getFiles(String activeProfile) {
+        List<Path> files = new ArrayList<>(2);
+        getFile(BASE_RESOURCE).ifPresent(files::add);
+        if (activeProfile != null && !activeProfile.isBlank()) {
+            getFile(getProfileResource(activeProfile)).ifPresent(files::add);
+        }
+        return files;
+    }
+
+    private Optional<Path> getFile(String resourceName) {
+        URL resource = classLoader.getResource(resourceName);
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Path.of(resource.toURI()));
+        } catch (URISyntaxException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Map<String, String>> read(String resourceName) throws IOException {
+        URL resource = classLoader.getResource(resourceName);
+        if (resource == null) {
+            return Optional.empty();
+        }
+        // jar connections are cached by default, a reload has to see the current content
+        URLConnection connection = resource.openConnection();
+        connection.setUseCaches(false);
+        Properties fileProperties = new Properties();
+        try (InputStream input = connection.getInputStream()) {
+            fileProperties.load(input);
+        }
+        Map<String, String> values = new HashMap<>();
+        fileProperties.stringPropertyNames().forEach(key -> values.put(key, fileProperties.getProperty(key)));
+        return Optional.of(values);
+    }
+
+    private static String getProfileResource(String profile) {
+        return "application-" + profile.trim() + ".properties";
+    }
+
+    private static Map<String, String> parseCommandLine(String[] args) {
+        Map<String, String> properties = new HashMap<>();
+        if (args == null) {
+            return properties;
+        }
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.length() == 2) {
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                properties.put(arg.substring(2), "true");
+            } else {
+                properties.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return properties;
+    }
+
+    private static String toEnvironmentName(String key) {
+        return key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+
+    private static String firstNonNull(String... values) {
+        for (String value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,378 @@
+package framework.context;
+
+import framework.annotations.*;
+import framework.annotations.Service.Scope;
+import framework.exceptions.InstanceCreationWrapperException;
+import framework.exceptions.MultipleAutowiredConstructorsException;
+import framework.exceptions.MultipleConstructorsNonAutowiredException;
+import framework.injection.Dependency;
+
+import javax.annotation.Nullable;
+import java.lang.System.Logger.Level;
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything the framework reads off a class: id, profile, scope, constructor, injection points,
+ * listener, scheduled and lifecycle methods.
+ * <p>
+ * Built on first use and cached in a {@link ClassValue}, so annotations and members of a class are
+ * read once per JVM no matter how many phases, lookups or contexts ask for them. Only depends on the
+ * class itself; anything that depends on the context, like whether a dependency's type is managed,
+ * is still checked by the caller.
+ */
+public class BeanDescriptor {
+    private static final System.Logger LOGGER = System.getLogger(BeanDescriptor.class.getName());
+    private static final ClassValue<BeanDescriptor> DESCRIPTORS = new ClassValue<>() {
+        @Override
+        protected BeanDescriptor computeValue(Class<?> type) {
+            return new BeanDescriptor(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final boolean service;
+    private final String id;
+    private final @Nullable String explicitName;
+    private final @Nullable String profile;
+    private final Scope scope;
+    private final @Nullable Lazy lazy;
+    private final List<Class<?>> superClasses;
+    private final List<Class<?>> interfaces;
+
+    private final @Nullable Constructor<?> preferredConstructor;
+    private final @Nullable Dependency[] constructorDependencies;
+    private final @Nullable Exception constructorError;
+
+    private final List<Field> instanceFields;
+    private final List<InjectedField> injectedFields;
+    private final List<PropertyField> propertyFields;
+    private final List<InjectedMethod> injectedMethods;
+    private final List<Method> eventListenerMethods;
+    private final List<Method> scheduledMethods;
+    private final List<Method> postConstructMethods;
+    private final List<Method> preDestroyMethods;
+
+    /**
+     * An @Autowired field
+     */
+    public record InjectedField(Field field, Dependency dependency) {
+    }
+
+    /**
+     * A @Value field
+     *
+     * @param key - property the field is set to
+     */
+    public record PropertyField(Field field, String key) {
+    }
+
+    /**
+     * An @Autowired method, one dependency per parameter
+     */
+    public record InjectedMethod(Method method, Dependency[] dependencies) {
+    }
+
+    private BeanDescriptor(Class<?> type) {
+        this.type = type;
+
+        Service serviceAnnotation = type.getAnnotation(Service.class);
+        this.service = serviceAnnotation != null;
+        this.explicitName = serviceAnnotation != null && !serviceAnnotation.value().isEmpty()
+                ? serviceAnnotation.value()
+                : null;
+        this.id = explicitName != null ? explicitName : type.getSimpleName();
+        this.scope = serviceAnnotation != null ? serviceAnnotation.scope() : Scope.SINGLETON;
+
+        Profile profileAnnotation = type.getAnnotation(Profile.class);
+        this.profile = profileAnnotation != null ? profileAnnotation.value() : null;
+        this.lazy = type.getAnnotation(Lazy.class);
+
+        List<Class<?>> superClasses = new ArrayList<>();
+        for (Class<?> superclass = type.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+            superClasses.add(superclass);
+        }
+        this.superClasses = List.copyOf(superClasses);
+        this.interfaces = List.of(type.getInterfaces());
+
+        Constructor<?> constructor = null;
+        Exception error = null;
+        try {
+            constructor = resolvePreferredConstructor(type);
+        } catch (MultipleAutowiredConstructorsException | MultipleConstructorsNonAutowiredException e) {
+            error = e;
+        }
+        this.preferredConstructor = constructor;
+        this.constructorError = error;
+        this.constructorDependencies = constructor != null ? dependencies(constructor.getParameters()) : null;
+
+        List<Field> instanceFields = new ArrayList<>();
+        List<InjectedField> injectedFields = new ArrayList<>();
+        List<PropertyField> propertyFields = new ArrayList<>();
+        List<InjectedMethod> injectedMethods = new ArrayList<>();
+        List<Method> eventListenerMethods = new ArrayList<>();
+        List<Method> scheduledMethods = new ArrayList<>();
+        List<Method> postConstructMethods = new ArrayList<>();
+        List<Method> preDestroyMethods = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                instanceFields.add(field);
+            }
+            if (field.isAnnotationPresent(Autowired.class)) {
+                injectedFields.add(new InjectedField(field, dependency(field.getGenericType(), field.getType(), field)));
+            }
+            if (field.isAnnotationPresent(Value.class)) {
+                propertyFields.add(new PropertyField(field, field.getAnnotation(Value.class).value()));
+            }
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Autowired.class)) {
+                injectedMethods.add(new InjectedMethod(method, dependencies(method.getParameters())));
+            } else if (method.isAnnotationPresent(EventListener.class)) {
+                eventListenerMethods.add(method);
+            }
+            if (method.isAnnotationPresent(Scheduled.class)) {
+                scheduledMethods.add(method);
+            }
+            if (method.isAnnotationPresent(PostConstruct.class)) {
+                postConstructMethods.add(method);
+            }
+            if (method.isAnnotationPresent(PreDestroy.class)) {
+                preDestroyMethods.add(method);
+            }
+        }
+        this.instanceFields = List.copyOf(instanceFields);
+        this.injectedFields = List.copyOf(injectedFields);
+        this.propertyFields = List.copyOf(propertyFields);
+        this.injectedMethods = List.copyOf(injectedMethods);
+        this.eventListenerMethods = List.copyOf(eventListenerMethods);
+        this.scheduledMethods = List.copyOf(scheduledMethods);
+        this.postConstructMethods = List.copyOf(postConstructMethods);
+        this.preDestroyMethods = List.copyOf(preDestroyMethods);
+    }
+
+    public static BeanDescriptor of(Class<?> type) {
+        return DESCRIPTORS.get(type);
+    }
+
+    /**
+     * @return the dependency a constructor or method parameter asks for
+     */
+    public static Dependency dependency(Parameter parameter) {
+        return dependency(parameter.getParameterizedType(), parameter.getType(), parameter);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean isService() {
+        return service;
+    }
+
+    /**
+     * @return the @Service value, or the simple class name if it has none
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the @Service value, null if it has none
+     */
+    public @Nullable String getExplicitName() {
+        return explicitName;
+    }
+
+    /**
+     * @return the @Profile value, null if the class isn't restricted to a profile
+     */
+    public @Nullable String getProfile() {
+        return profile;
+    }
+
+    /**
+     * @return the declared scope, singleton if the class has no @Service
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    public @Nullable Lazy getLazy() {
+        return lazy;
+    }
+
+    public List<Class<?>> getSuperClasses() {
+        return superClasses;
+    }
+
+    public List<Class<?>> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * @return the @Autowired public constructor, or the only public one. Null if there is none
+     * @throws InstanceCreationWrapperException - several public constructors but not exactly one @Autowired
+     */
+    public @Nullable Constructor<?> getPreferredConstructor() throws InstanceCreationWrapperException {
+        if (constructorError != null) {
+            throw new InstanceCreationWrapperException(constructorError.getMessage(), constructorError);
+        }
+        return preferredConstructor;
+    }
+
+    /**
+     * @return dependencies of the constructor's parameters. Shared for the preferred constructor, don't modify it
+     */
+    public Dependency[] getDependencies(Constructor<?> constructor) {
+        if (constructor.equals(preferredConstructor)) {
+            return constructorDependencies;
+        }
+        return dependencies(constructor.getParameters());
+    }
+
+    /**
+     * @return declared non-static fields, e.g. the ones a @ConfigurationProperties class is bound to
+     */
+    public List<Field> getInstanceFields() {
+        return instanceFields;
+    }
+
+    public List<InjectedField> getInjectedFields() {
+        return injectedFields;
+    }
+
+    public List<PropertyField> getPropertyFields() {
+        return propertyFields;
+    }
+
+    public List<InjectedMethod> getInjectedMethods() {
+        return injectedMethods;
+    }
+
+    public List<Method> getEventListenerMethods() {
+        return eventListenerMethods;
+    }
+
+    public List<Method> getScheduledMethods() {
+        return scheduledMethods;
+    }
+
+    public List<Method> getPostConstructMethods() {
+        return postConstructMethods;
+    }
+
+    public List<Method> getPreDestroyMethods() {
+        return preDestroyMethods;
+    }
+
+    /**
+     * @return true if the class has @EventListener or @Scheduled methods, which are registered on an instance
+     */
+    public boolean needsInstanceOnStartup() {
+        return !eventListenerMethods.isEmpty() || !scheduledMethods.isEmpty();
+    }
+
+    private static @Nullable Constructor<?> resolvePreferredConstructor(Class<?> type)
+            throws MultipleAutowiredConstructorsException, MultipleConstructorsNonAutowiredException {
+        Constructor<?>[] constructors = type.getConstructors();
+        List<Constructor<?>> autowiredConstructors = Arrays.stream(constructors)
+                .filter(constructor -> constructor.isAnnotationPresent(Autowired.class))
+                .toList();
+        if (autowiredConstructors.size() > 1) {
+            throw new MultipleAutowiredConstructorsException(type, autowiredConstructors.size());
+        }
+        if (autowiredConstructors.size() == 1) {
+            return autowiredConstructors.getFirst();
+        }
+
+        if (constructors.length == 0) {
+            return null;
+        }
+        if (constructors.length > 1) {
+            // if class has multiple constructors and no @autowired, error out
+            // and require adding it to one constructor
+            throw new MultipleConstructorsNonAutowiredException(type, constructors.length);
+        }
+        return constructors[0];
+    }
+
+    private static Dependency[] dependencies(Parameter[] parameters) {
+        Dependency[] dependencies = new Dependency[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            dependencies[i] = dependency(parameters[i]);
+        }
+        return dependencies;
+    }
+
+    /**
+     * {@code List<T>}, {@code Set<T>}, {@code Map<String, T>} and {@code Provider<T>} are resolved to
+     * every candidate of T, anything else, raw types included, to the one instance of the declared type.
+     */
+    private static Dependency dependency(Type declaredType, Class<?> erasedType, AnnotatedElement injectionPoint) {
+        Qualifier qualifier = injectionPoint.getAnnotation(Qualifier.class);
+        String qualifierValue = qualifier != null ? qualifier.value() : null;
+        boolean lazy = isLazy(injectionPoint);
+
+        if (declaredType instanceof ParameterizedType parameterizedType) {
+            Type[] typeArguments = parameterizedType.getActualTypeArguments();
+            Dependency.Kind kind = getKind(erasedType, typeArguments);
+            Class<?> elementType = kind != null ? rawType(typeArguments[typeArguments.length - 1]) : null;
+            if (elementType != null) {
+                if (kind == Dependency.Kind.PROVIDER) {
+                    // looked up on every call anyway
+                    return new Dependency(elementType, qualifierValue, false, kind);
+                }
+                if (qualifier != null || lazy) {
+                    LOGGER.log(Level.WARNING, "Ignoring @Qualifier and @Lazy of " + describe(injectionPoint)
+                            + " since it's injected with every candidate of " + elementType.getName());
+                }
+                return new Dependency(elementType, null, false, kind);
+            }
+        }
+        return new Dependency(erasedType, qualifierValue, lazy);
+    }
+
+    private static @Nullable Dependency.Kind getKind(Class<?> rawType, Type[] typeArguments) {
+        if (rawType == List.class) {
+            return Dependency.Kind.LIST;
+        }
+        if (rawType == Set.class) {
+            return Dependency.Kind.SET;
+        }
+        if (rawType == Map.class && typeArguments[0] == String.class) {
+            return Dependency.Kind.MAP;
+        }
+        if (rawType == Provider.class) {
+            return Dependency.Kind.PROVIDER;
+        }
+        return null;
+    }
+
+    // erasure of a declared or type argument type, e.g. the bound of a wildcard or type variable
+    private static @Nullable Class<?> rawType(Type type) {
+        return switch (type) {
+            case Class<?> clazz -> clazz;
+            case ParameterizedType parameterizedType -> rawType(parameterizedType.getRawType());
+            case WildcardType wildcardType -> rawType(wildcardType.getUpperBounds()[0]);
+            case TypeVariable<?> typeVariable -> rawType(typeVariable.getBounds()[0]);
+            default -> null;
+        };
+    }
+
+    private static String describe(AnnotatedElement injectionPoint) {
+        if (injectionPoint instanceof Parameter parameter) {
+            return parameter.getName() + " of " + parameter.getDeclaringExecutable();
+        }
+        return injectionPoint.toString();
+    }
+
+    private static boolean isLazy(AnnotatedElement element) {
+        Lazy lazy = element.getAnnotation(Lazy.class);
+        return lazy != null && lazy.value();
+    }
+}
@@ -0,0 +1,102 @@
+package framework.context;
+
+import framework.exceptions.InstanceCreationWrapperException;
+
+import javax.annotation.Nullable;
+import java.lang.System.Logger.Level;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calls the @PostConstruct and @PreDestroy methods of instances.
+ */
+public class BeanLifecycle {
+    private static final System.Logger LOGGER = System.getLogger(BeanLifecycle.class.getName());
+
+    private BeanLifecycle() {
+    }
+
+    /**
+     * @param instance - created and injected instance
+     * @throws InstanceCreationWrapperException - a @PostConstruct method threw
+     */
+    public static void postConstruct(Object instance) throws InstanceCreationWrapperException {
+        for (Method method : BeanDescriptor.of(instance.getClass()).getPostConstructMethods()) {
+            try {
+                method.setAccessible(true);
+                method.invoke(instance);
+            } catch (InvocationTargetException e) {
+                throw new InstanceCreationWrapperException(String.format("""
+                        \nError Message:
+                            @PostConstruct method %s of %s failed: %s
+                        """, method.getName(), instance.getClass().getName(), e.getCause()), e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new InstanceCreationWrapperException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * A failing @PreDestroy method is logged, the other ones are called anyway
+     */
+    public static void preDestroy(Object instance) {
+        for (Method method : BeanDescriptor.of(instance.getClass()).getPreDestroyMethods()) {
+            try {
+                method.setAccessible(true);
+                method.invoke(instance);
+            } catch (InvocationTargetException e) {
+                LOGGER.log(Level.ERROR, "@PreDestroy method " + method.getName() + " of "
+                        + instance.getClass().getName() + " failed", e.getCause());
+            } catch (IllegalAccessException e) {
+                LOGGER.log(Level.ERROR, "Can't call @PreDestroy method " + method.getName() + " of "
+                        + instance.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Destroys the levels in reverse, so an instance is destroyed before everything it was created from.
+     * The instances of one level don't depend on each other and are destroyed concurrently on the pool.
+     *
+     * @param levels        - instances in creation levels, first level has no dependencies
+     * @param pool          - runs the instances of a level, null destroys everything on the calling thread
+     * @param deadlineNanos - System.nanoTime() after which no more instances are destroyed
+     * @return false if the deadline passed before every instance was destroyed
+     */
+    public static boolean destroy(List<List<Object>> levels, @Nullable ExecutorService pool, long deadlineNanos) {
+        for (List<Object> level : levels.reversed()) {
+            if (pool == null || level.size() == 1) {
+                for (Object instance : level) {
+                    if (System.nanoTime() - deadlineNanos >= 0) {
+                        return false;
+                    }
+                    preDestroy(instance);
+                }
+                continue;
+            }
+
+            List<? extends Future<?>> tasks = level.stream()
+                    .map(instance -> pool.submit(() -> preDestroy(instance)))
+                    .toList();
+            for (Future<?> task : tasks) {
+                try {
+                    task.get(Math.max(deadlineNanos - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    return false;
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.ERROR, "@PreDestroy failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+package framework.context;
+
+import framework.exceptions.InstanceCreationWrapperException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * JDK proxies that look their target up on every call, for beans that can't be injected as an instance
+ * (lazy ones that don't exist yet, thread and request scoped ones that differ per call).
+ * <p>
+ * equals, hashCode and toString are answered by the proxy itself as long as there is no target,
+ * so putting a proxy into a set or logging it doesn't create a bean.
+ */
+public class BeanProxies {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    // the Method instances passed to the handlers are the same for every call of a proxy class
+    private static final Map<Method, MethodHandle> INVOKERS = new ConcurrentHashMap<>();
+
+    /**
+     * @param type          - interface the proxy implements. For a class, the proxy implements all of its interfaces
+     * @param target        - called on every method call of the proxy
+     * @param createdTarget - the target if it already exists without creating it, null otherwise
+     */
+    public static Object create(Class<?> type, InstanceFactory target, Supplier<Object> createdTarget) {
+        return Proxy.newProxyInstance(type.getClassLoader(), getInterfaces(type),
+                new TargetInvocationHandler(type, target, createdTarget));
+    }
+
+    private static Class<?>[] getInterfaces(Class<?> type) {
+        if (type.isInterface()) {
+            return new Class<?>[]{type};
+        }
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            interfaces.addAll(Set.of(current.getInterfaces()));
+        }
+        return interfaces.toArray(new Class<?>[0]);
+    }
+
+    private static MethodHandle getInvoker(Method method) {
+        MethodHandle invoker = INVOKERS.get(method);
+        if (invoker == null) {
+            try {
+                // the interface may not be accessible from here, e.g. a package-private one
+                method.setAccessible(true);
+                invoker = MethodHandles.lookup().unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(INVOKER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            INVOKERS.putIfAbsent(method, invoker);
+        }
+        return invoker;
+    }
+
+    private record TargetInvocationHandler(Class<?> type, InstanceFactory target, Supplier<Object> createdTarget)
+            implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object instance;
+            if (method.getDeclaringClass() == Object.class) {
+                if ("equals".equals(method.getName()) && proxy == args[0]) {
+                    return true;
+                }
+                instance = createdTarget.get();
+                if (instance == null) {
+                    return switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> "Proxy of " + type.getName();
+                    };
+                }
+            } else {
+                try {
+                    instance = target.create();
+                } catch (InstanceCreationWrapperException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }
+            return (Object) getInvoker(method).invokeExact(instance, args);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package framework.context;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Instances of the application context, by name and by every type they can be injected as.
+ * <p>
+ * While the context starts the registry is written from a single thread. {@link #freeze()} then
+ * copies it into immutable maps published through a volatile field, after which it can be read
+ * from any thread without locking. Every type maps either to its only candidate or to an array of
+ * all of its candidates, so looking up a single candidate doesn't allocate. The candidates of a
+ * type by name, for {@code Map<String, T>} injection, are computed on freezing as well.
+ * <p>
+ * A registry with a parent answers from its own instances first and asks the parent for names
+ * and types it has no instance for. The parent has to be frozen already.
+ */
+public class ContextRegistry {
+    private final @Nullable ContextRegistry parent;
+    private final Map<String, Object> instancesByName = new HashMap<>();
+    private final Map<Class<?>, List<Object>> instancesByType = new HashMap<>();
+    private final Map<Object, String> namesByInstance = new IdentityHashMap<>();
+    private final Set<Class<?>> managedTypes = new HashSet<>();
+
+    private volatile Frozen frozen;
+
+    public ContextRegistry() {
+        this(null);
+    }
+
+    /**
+     * @param parent - frozen registry to fall back to, null for none
+     */
+    public ContextRegistry(@Nullable ContextRegistry parent) {
+        if (parent != null && !parent.isFrozen()) {
+            throw new IllegalArgumentException("Parent registry has to be frozen");
+        }
+        this.parent = parent;
+    }
+
+    private record Frozen(Map<String, Object> instancesByName,
+                          Map<Class<?>, Object> singleCandidates,
+                          Map<Class<?>, Object[]> candidates,
+                          Map<Class<?>, Map<String, Object>> namedCandidates,
+                          Set<Class<?>> managedTypes) {
+    }
+
+    /**
+     * The first instance registered under a name keeps it.
+     */
+    public void registerByName(String name, Object instance) {
+        checkNotFrozen();
+        if (instancesByName.putIfAbsent(name, instance) == null) {
+            namesByInstance.putIfAbsent(instance, name);
+        }
+    }
+
+    public void registerByType(Class<?> type, Object instance) {
+        checkNotFrozen();
+        List<Object> candidates = instancesByType.computeIfAbsent(type, k -> new ArrayList<>(1));
+        for (Object candidate : candidates) {
+            if (candidate == instance) {
+                return;
+            }
+        }
+        candidates.add(instance);
+    }
+
+    /**
+     * @param types - types that may be used as dependencies, i.e. services and their abstractions
+     */
+    public void registerManagedTypes(Collection<Class<?>> types) {
+        checkNotFrozen();
+        managedTypes.addAll(types);
+    }
+
+    public void freeze() {
+        if (frozen != null) {
+            return;
+        }
+
+        Map<Class<?>, Object> singleCandidates = new HashMap<>();
+        Map<Class<?>, Object[]> candidates = new HashMap<>();
+        Map<Class<?>, Map<String, Object>> namedCandidates = new HashMap<>();
+        instancesByType.forEach((type, instances) -> {
+            Object[] instanceArray = instances.toArray();
+            candidates.put(type, instanceArray);
+            namedCandidates.put(type, Collections.unmodifiableMap(byName(instances)));
+            if (instanceArray.length == 1) {
+                singleCandidates.put(type, instanceArray[0]);
+            }
+        });
+
+        frozen = new Frozen(Map.copyOf(instancesByName), Map.copyOf(singleCandidates),
+                Map.copyOf(candidates), Map.copyOf(namedCandidates), Set.copyOf(managedTypes));
+    }
+
+    /**
+     * Forgets every instance and type, frozen or not, so a new context can be registered. The parent is kept.
+     * The THREAD scoped instances of registered ScopedBeans are dropped on all threads
+     */
+    public void clear() {
+        for (List<Object> instances : instancesByType.values()) {
+            for (Object instance : instances) {
+                if (instance instanceof ScopedBean scopedBean) {
+                    scopedBean.clear();
+                }
+            }
+        }
+        instancesByName.clear();
+        instancesByType.clear();
+        namesByInstance.clear();
+        managedTypes.clear();
+        frozen = null;
+    }
+
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
+    public boolean isManagedType(Class<?> type) {
+        Frozen snapshot = frozen;
+        boolean managed = snapshot != null ? snapshot.managedTypes.contains(type) : managedTypes.contains(type);
+        return managed || parent != null && parent.isManagedType(type);
+    }
+
+    /**
+     * @return whether an instance is registered for the type, in this registry or its parents
+     */
+    public boolean hasCandidates(Class<?> type) {
+        return getCandidates(type).length > 0;
+    }
+
+    /**
+     * @return the types registered in this registry, not the ones of its parents
+     */
+    public Set<Class<?>> getManagedTypes() {
+        Frozen snapshot = frozen;
+        return snapshot != null ? snapshot.managedTypes : Collections.unmodifiableSet(managedTypes);
+    }
+
+    public @Nullable Object getByName(String name) {
+        Frozen snapshot = frozen;
+        Object instance = snapshot != null ? snapshot.instancesByName.get(name) : instancesByName.get(name);
+        return instance != null || parent == null ? instance : parent.getByName(name);
+    }
+
+    /**
+     * @return the instance if exactly one is registered for the type, null if there are none or several
+     */
+    public @Nullable Object getSingleCandidate(Class<?> type) {
+        Frozen snapshot = frozen;
+        if (snapshot != null) {
+            Object candidate = snapshot.singleCandidates.get(type);
+            if (candidate != null || snapshot.candidates.containsKey(type)) {
+                return candidate;
+            }
+        } else {
+            List<Object> instances = instancesByType.get(type);
+            if (instances != null) {
+                return instances.size() == 1 ? instances.getFirst() : null;
+            }
+        }
+        return parent != null ? parent.getSingleCandidate(type) : null;
+    }
+
+    /**
+     * @return every instance registered for the type, the parent's if there is none here. Shared after
+     * the registry is frozen, don't modify it
+     */
+    public Object[] getCandidates(Class<?> type) {
+        Frozen snapshot = frozen;
+        if (snapshot != null) {
+            Object[] candidates = snapshot.candidates.get(type);
+            if (candidates != null) {
+                return candidates;
+            }
+        } else {
+            List<Object> instances = instancesByType.get(type);
+            if (instances != null) {
+                return instances.toArray();
+            }
+        }
+        return parent != null ? parent.getCandidates(type) : new Object[0];
+    }
+
+    /**
+     * @return every instance registered for the type by its name, in registration order. Instances
+     * without a name, like configuration properties, by their class name. Shared after the registry
+     * is frozen, don't modify it
+     */
+    public Map<String, Object> getNamedCandidates(Class<?> type) {
+        Frozen snapshot = frozen;
+        if (snapshot != null) {
+            Map<String, Object> namedCandidates = snapshot.namedCandidates.get(type);
+            if (namedCandidates != null) {
+                return namedCandidates;
+            }
+        } else {
+            List<Object> instances = instancesByType.get(type);
+            if (instances != null) {
+                return byName(instances);
+            }
+        }
+        return parent != null ? parent.getNamedCandidates(type) : Map.of();
+    }
+
+    private Map<String, Object> byName(List<Object> instances) {
+        Map<String, Object> named = new LinkedHashMap<>();
+        for (Object instance : instances) {
+            String name = namesByInstance.get(instance);
+            named.putIfAbsent(name != null ? name : instance.getClass().getName(), instance);
+        }
+        return named;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen != null) {
+            throw new IllegalStateException("Application context is already started and can't be modified");
+        }
+    }
+}
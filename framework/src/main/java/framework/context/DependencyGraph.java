@@ -0,0 +1,86 @@
+package framework.context;
+
+import framework.exceptions.CircularDependencyException;
+
+import java.util.*;
+
+/**
+ * Directed graph of constructor dependencies between service classes. An edge {@code A -> B} means
+ * A's constructor needs an instance of B, so B has to be created first.
+ */
+public class DependencyGraph {
+    private final Map<Class<?>, Set<Class<?>>> dependencies = new LinkedHashMap<>();
+
+    public void addNode(Class<?> serviceClass) {
+        dependencies.computeIfAbsent(serviceClass, k -> new LinkedHashSet<>());
+    }
+
+    /**
+     * @param dependent  - class whose constructor needs the dependency
+     * @param dependency - class that has to be created before the dependent
+     */
+    public void addDependency(Class<?> dependent, Class<?> dependency) {
+        addNode(dependency);
+        dependencies.computeIfAbsent(dependent, k -> new LinkedHashSet<>()).add(dependency);
+    }
+
+    public Set<Class<?>> getNodes() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    public Set<Class<?>> getDependencies(Class<?> serviceClass) {
+        return Collections.unmodifiableSet(dependencies.getOrDefault(serviceClass, Set.of()));
+    }
+
+    /**
+     * Groups the nodes so that every node only depends on nodes of earlier levels, i.e. all nodes of
+     * one level can be created independently of each other. Each level is sorted by class name so the
+     * grouping is stable between runs.
+     *
+     * @return creation levels, first level has no dependencies
+     * @throws CircularDependencyException - if some nodes can never be resolved
+     */
+    public List<List<Class<?>>> getCreationLevels() throws CircularDependencyException {
+        Map<Class<?>, Integer> remainingDependencies = new HashMap<>();
+        Map<Class<?>, List<Class<?>>> dependents = new HashMap<>();
+
+        dependencies.forEach((node, nodeDependencies) -> {
+            remainingDependencies.put(node, nodeDependencies.size());
+            nodeDependencies.forEach(dependency ->
+                    dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(node));
+        });
+
+        List<List<Class<?>>> levels = new ArrayList<>();
+        List<Class<?>> currentLevel = remainingDependencies.entrySet().stream()
+                .filter(entry -> entry.getValue() == 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        int resolved = 0;
+
+        while (!currentLevel.isEmpty()) {
+            List<Class<?>> level = new ArrayList<>(currentLevel);
+            level.sort(Comparator.comparing(Class::getName));
+            levels.add(Collections.unmodifiableList(level));
+            resolved += level.size();
+
+            List<Class<?>> nextLevel = new ArrayList<>();
+            for (Class<?> node : level) {
+                for (Class<?> dependent : dependents.getOrDefault(node, List.of())) {
+                    if (remainingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                        nextLevel.add(dependent);
+                    }
+                }
+            }
+            currentLevel = nextLevel;
+        }
+
+        if (resolved != dependencies.size()) {
+            throw new CircularDependencyException(remainingDependencies.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 0)
+                    .map(Map.Entry::getKey)
+                    .toList());
+        }
+
+        return levels;
+    }
+}
@@ -0,0 +1,11 @@
+package framework.context;
+
+import framework.exceptions.InstanceCreationWrapperException;
+
+/**
+ * Creates or looks up an instance when it's needed, for beans that aren't simply created on startup.
+ */
+@FunctionalInterface
+public interface InstanceFactory {
+    Object create() throws InstanceCreationWrapperException;
+}
@@ -0,0 +1,83 @@
+package framework.context;
+
+import framework.exceptions.InstanceCreationWrapperException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stands in for an instance in the {@link ContextRegistry} until it's first needed.
+ * <p>
+ * {@link #get()} creates the instance once. It's published through a volatile field only after the
+ * factory returned, so every thread sees a fully created and injected instance. Interface typed
+ * injection points get a proxy from {@link #getProxy()} that calls {@link #get()} on first use.
+ */
+public class LazyBean {
+    private final Class<?> type;
+    private final InstanceFactory factory;
+    private volatile Object instance;
+    private volatile Object proxy;
+    // only touched while holding the lock
+    private boolean creating;
+
+    /**
+     * @param type    - class of the instance, the proxy implements all of its interfaces.
+     *                Or an interface, then the proxy only implements that one
+     * @param factory - creates the instance, called at most once
+     */
+    public LazyBean(Class<?> type, InstanceFactory factory) {
+        this.type = type;
+        this.factory = factory;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Object get() throws InstanceCreationWrapperException {
+        Object result = instance;
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            if (instance == null) {
+                if (creating) {
+                    throw new InstanceCreationWrapperException(String.format("""
+                            \nError Message:
+                                Lazy instance of %s is needed while it's being created.
+                                Inject it into its dependencies through an interface to get a proxy instead.
+                            """, type.getName()), null);
+                }
+                creating = true;
+                try {
+                    instance = factory.create();
+                } finally {
+                    creating = false;
+                }
+            }
+            return instance;
+        }
+    }
+
+    public @Nullable Object getIfCreated() {
+        return instance;
+    }
+
+    public Object getProxy() {
+        Object result = proxy;
+        if (result == null) {
+            synchronized (this) {
+                if (proxy == null) {
+                    proxy = BeanProxies.create(type, this::get, this::getIfCreated);
+                }
+                result = proxy;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        Object created = instance;
+        return created != null ? created.toString() : "Lazy " + type.getName();
+    }
+}
@@ -0,0 +1,27 @@
+package framework.context;
+
+import java.util.List;
+
+/**
+ * Injected in place of a dependency that's looked up when it's needed instead of when the bean is
+ * wired, e.g. {@code @Autowired Provider<ReportRenderer> renderers}. Doesn't need the candidates to
+ * exist while the bean is created, so it also breaks dependency cycles.
+ * <p>
+ * Once the context is started the candidates are read from arrays the context computed on startup,
+ * so {@link #get()} is a field read. Lazy and scoped candidates are resolved on every call, i.e.
+ * {@link #get()} of a request scoped bean returns the current request's instance.
+ *
+ * @param <T> - type of the candidates, any type or interface managed by the framework
+ */
+public interface Provider<T> {
+    /**
+     * @return the candidate named by the injection point's @Qualifier, otherwise the only candidate
+     * @throws IllegalStateException - if there is no candidate, or several and no @Qualifier
+     */
+    T get();
+
+    /**
+     * @return every candidate, in the order they were added to the context. Empty if there is none
+     */
+    List<T> getAll();
+}
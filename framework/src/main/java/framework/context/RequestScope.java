@@ -0,0 +1,57 @@
+package framework.context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Bounds the lifetime of REQUEST scoped instances: every instance looked up inside
+ * {@link #run(Runnable)} belongs to that call and is dropped as soon as it returns, also if it throws.
+ * <p>
+ * The request's instances are bound to the running thread and always unbound in a finally block,
+ * so nothing outlives the request even on pooled threads. Nested calls start a new request and
+ * restore the outer one afterwards. Work handed to other threads doesn't see the request.
+ * <p>
+ * This is what a ScopedValue binding does; ScopedValue is still a preview API in Java 22, so the
+ * binding is kept in a ThreadLocal that only this class ever sets.
+ */
+public class RequestScope {
+    private static final ThreadLocal<Map<ScopedBean, Object>> CURRENT = new ThreadLocal<>();
+
+    public static void run(Runnable request) {
+        Map<ScopedBean, Object> outer = CURRENT.get();
+        CURRENT.set(new HashMap<>());
+        try {
+            request.run();
+        } finally {
+            restore(outer);
+        }
+    }
+
+    public static <T> T call(Callable<T> request) throws Exception {
+        Map<ScopedBean, Object> outer = CURRENT.get();
+        CURRENT.set(new HashMap<>());
+        try {
+            return request.call();
+        } finally {
+            restore(outer);
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    // instances of the current request, null outside of a request
+    static Map<ScopedBean, Object> current() {
+        return CURRENT.get();
+    }
+
+    private static void restore(Map<ScopedBean, Object> outer) {
+        if (outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(outer);
+        }
+    }
+}
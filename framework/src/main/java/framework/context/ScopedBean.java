@@ -0,0 +1,142 @@
+package framework.context;
+
+import framework.annotations.Service.Scope;
+import framework.exceptions.InstanceCreationWrapperException;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stands in for a PROTOTYPE, THREAD or REQUEST scoped class in the {@link ContextRegistry}.
+ * <p>
+ * {@link #get()} returns the instance of the current scope, creating it through the factory if
+ * there is none yet. The factory is set up once per class (constructor handle, dependencies and
+ * injection plan), so a new instance costs about as much as calling the constructor.
+ * <p>
+ * THREAD scoped instances are kept by the bean itself instead of in ThreadLocals, so {@link #clear()}
+ * can drop the ones of every thread when the context shuts down, pooled threads outlive the context.
+ */
+public class ScopedBean {
+    private static final int MIN_PRUNE_THRESHOLD = 64;
+
+    private final Class<?> type;
+    private final Scope scope;
+    private final InstanceFactory factory;
+    private final Map<Thread, Object> threadInstances;
+    // size at which instances of terminated threads are dropped next
+    private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+    private volatile Object proxy;
+
+    /**
+     * @param type    - class of the instances
+     * @param scope   - PROTOTYPE, THREAD or REQUEST
+     * @param factory - creates a new, injected instance
+     */
+    public ScopedBean(Class<?> type, Scope scope, InstanceFactory factory) {
+        if (scope == Scope.SINGLETON) {
+            throw new IllegalArgumentException("Singletons are registered as instances");
+        }
+        this.type = type;
+        this.scope = scope;
+        this.factory = factory;
+        this.threadInstances = scope == Scope.THREAD ? new ConcurrentHashMap<>() : null;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public Object get() throws InstanceCreationWrapperException {
+        return switch (scope) {
+            case PROTOTYPE -> factory.create();
+            case THREAD -> {
+                Thread thread = Thread.currentThread();
+                Object instance = threadInstances.get(thread);
+                if (instance == null) {
+                    instance = factory.create();
+                    threadInstances.put(thread, instance);
+                    pruneTerminatedThreads();
+                }
+                yield instance;
+            }
+            case REQUEST -> {
+                Map<ScopedBean, Object> requestInstances = RequestScope.current();
+                if (requestInstances == null) {
+                    throw new InstanceCreationWrapperException(String.format("""
+                            \nError Message:
+                                Request scoped instance of %s is needed outside of a request.
+                                Look it up inside RequestScope.run(...).
+                            """, type.getName()), null);
+                }
+                Object instance = requestInstances.get(this);
+                if (instance == null) {
+                    instance = factory.create();
+                    requestInstances.put(this, instance);
+                }
+                yield instance;
+            }
+            case SINGLETON -> throw new IllegalStateException();
+        };
+    }
+
+    /**
+     * @return the instance of the current thread or request without creating it, null if there is none.
+     * Always null for PROTOTYPE
+     */
+    public @Nullable Object getIfCreated() {
+        return switch (scope) {
+            case THREAD -> threadInstances.get(Thread.currentThread());
+            case REQUEST -> {
+                Map<ScopedBean, Object> requestInstances = RequestScope.current();
+                yield requestInstances != null ? requestInstances.get(this) : null;
+            }
+            case PROTOTYPE, SINGLETON -> null;
+        };
+    }
+
+    /**
+     * Drops the THREAD scoped instances of all threads, the next get() on a thread creates a new one
+     */
+    public void clear() {
+        if (threadInstances != null) {
+            threadInstances.clear();
+        }
+    }
+
+    // instances of threads that ended would otherwise stay until clear(), checked whenever the
+    // number of threads doubled so it stays linear in the number of instances created
+    private synchronized void pruneTerminatedThreads() {
+        if (threadInstances.size() < pruneThreshold) {
+            return;
+        }
+        threadInstances.keySet().removeIf(thread -> !thread.isAlive());
+        pruneThreshold = Math.max(2 * threadInstances.size(), MIN_PRUNE_THRESHOLD);
+    }
+
+    /**
+     * Proxy that calls the instance of the current thread or request on every call, so it can be
+     * injected into singletons
+     */
+    public Object getProxy() {
+        Object result = proxy;
+        if (result == null) {
+            synchronized (this) {
+                if (proxy == null) {
+                    proxy = BeanProxies.create(type, this::get, this::getIfCreated);
+                }
+                result = proxy;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return scope + " " + type.getName();
+    }
+}
@@ -0,0 +1,155 @@
+package framework.events;
+
+import framework.annotations.EventListener.Backpressure;
+import framework.metrics.Counter;
+import framework.metrics.MetricsRegistry;
+
+import java.lang.System.Logger.Level;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Listener declared with {@code @EventListener(async = true)}. Events go into a bounded queue that a
+ * dedicated virtual thread drains in publishing order, so a slow listener only delays itself.
+ * A failing event is counted and skipped, it doesn't stop the listener.
+ * <p>
+ * On {@link #close()} the thread delivers what's queued and ends, later events are delivered on the
+ * publisher's thread. Enqueueing and closing exclude each other, so no event ends up queued behind
+ * the end of the thread.
+ */
+public class AsyncEventListenerBinding extends EventListenerBinding {
+    private static final System.Logger LOGGER = System.getLogger(AsyncEventListenerBinding.class.getName());
+    // queued behind everything published before close(), unless the queue is full
+    private static final QueuedEvent STOP = new QueuedEvent(null, 0L);
+    // a BLOCK publisher waits for space in slices, close() can go ahead in between
+    private static final long BLOCK_SLICE_MILLIS = 10L;
+
+    private final BlockingQueue<QueuedEvent> queue;
+    private final int capacity;
+    private final Backpressure backpressure;
+    private final Counter dropped;
+    private final Thread drainer;
+    // read locked while enqueueing, write locked while closing
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    private record QueuedEvent(Object event, long enqueuedAtNanos) {
+    }
+
+    public AsyncEventListenerBinding(Object instance, Method method, Class<?> eventType,
+                                     int capacity, Backpressure backpressure) throws IllegalAccessException {
+        super(instance, method, eventType);
+        this.capacity = Math.max(capacity, 1);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.backpressure = backpressure;
+        this.dropped = MetricsRegistry.getDefault().counter("events.listener.dropped", "listener", getName());
+        this.drainer = Thread.ofVirtual().name("event-listener-" + getName()).start(this::drain);
+    }
+
+    @Override
+    public void deliver(Object event) {
+        if (!enqueue(new QueuedEvent(event, System.nanoTime()))) {
+            invoke(event);
+        }
+    }
+
+    // false if the event is delivered on the publisher's thread: once closed, or CALLER_RUNS on a full queue
+    private boolean enqueue(QueuedEvent queuedEvent) {
+        while (true) {
+            closeLock.readLock().lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                if (queue.offer(queuedEvent)) {
+                    return true;
+                }
+                switch (backpressure) {
+                    case BLOCK -> {
+                        if (queue.offer(queuedEvent, BLOCK_SLICE_MILLIS, TimeUnit.MILLISECONDS)) {
+                            return true;
+                        }
+                    }
+                    case DROP_OLDEST -> {
+                        while (!queue.offer(queuedEvent)) {
+                            if (queue.poll() != null) {
+                                dropped.increment();
+                            }
+                        }
+                        return true;
+                    }
+                    case CALLER_RUNS -> {
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+                return true;
+            } finally {
+                closeLock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+            // if the queue is full the drainer sees closed once it has emptied it
+            queue.offer(STOP);
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean awaitClosed(long deadlineNanos) throws InterruptedException {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos > 0) {
+            drainer.join(Duration.ofNanos(remainingNanos));
+        }
+        if (!drainer.isAlive()) {
+            return true;
+        }
+        LOGGER.log(Level.WARNING, "Async event listener " + getName() + " didn't drain in time, dropping "
+                + queue.size() + " queued events");
+        drainer.interrupt();
+        return false;
+    }
+
+    private void drain() {
+        while (true) {
+            QueuedEvent queuedEvent;
+            try {
+                queuedEvent = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (queuedEvent == STOP) {
+                return;
+            }
+            try {
+                invoke(queuedEvent.event());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.ERROR, "Async event listener " + getName() + " failed", e);
+            }
+            if (closed && queue.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    public ListenerQueueStats getStats() {
+        QueuedEvent oldest = queue.peek();
+        long lagNanos = oldest == null || oldest == STOP ? 0 : System.nanoTime() - oldest.enqueuedAtNanos();
+        return new ListenerQueueStats(getName(), queue.size(), capacity, lagNanos,
+                dropped.count(), getFailureCount());
+    }
+}
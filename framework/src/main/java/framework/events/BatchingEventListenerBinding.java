@@ -0,0 +1,132 @@
+package framework.events;
+
+import java.lang.System.Logger.Level;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener whose method takes a {@code List<EventType>}. Matching events are buffered and handed
+ * over as one list once {@code batchSize} of them are waiting, or when the batch window elapses,
+ * whichever comes first. A batch filled by publishing is delivered on the publisher's thread, a
+ * batch cut by the window on the framework's flush thread. Batches are handed to the listener one
+ * at a time, so its method doesn't have to be thread-safe.
+ */
+public class BatchingEventListenerBinding extends EventListenerBinding {
+    private static final System.Logger LOGGER = System.getLogger(BatchingEventListenerBinding.class.getName());
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-batch-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int batchSize;
+    private final Object lock = new Object();
+    // held while the listener method runs, publishers and the flush thread take turns
+    private final Object invokeLock = new Object();
+    private final ScheduledFuture<?> flushTask;
+    private List<Object> buffer;
+    private boolean closed;
+
+    public BatchingEventListenerBinding(Object instance, Method method, Class<?> elementType,
+                                        int batchSize, long batchWindowMillis) throws IllegalAccessException {
+        super(instance, method, elementType);
+        this.batchSize = Math.max(batchSize, 1);
+        this.buffer = new ArrayList<>(this.batchSize);
+        long window = Math.max(batchWindowMillis, 1L);
+        this.flushTask = FLUSHER.scheduleWithFixedDelay(this::flushQuietly, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    // once closed nothing flushes anymore, events are delivered as a batch of their own
+    @Override
+    public void deliver(Object event) {
+        List<Object> fullBatch = null;
+        synchronized (lock) {
+            if (closed) {
+                fullBatch = List.of(event);
+            } else {
+                buffer.add(event);
+                if (buffer.size() >= batchSize) {
+                    fullBatch = swapBuffer();
+                }
+            }
+        }
+        if (fullBatch != null) {
+            invokeBatch(fullBatch);
+        }
+    }
+
+    /**
+     * Buffers all events under a single lock acquisition and delivers every batch they complete.
+     */
+    public void deliverAll(List<Object> events) {
+        List<List<Object>> fullBatches = null;
+        synchronized (lock) {
+            if (closed) {
+                fullBatches = List.of(List.copyOf(events));
+            } else {
+                for (Object event : events) {
+                    buffer.add(event);
+                    if (buffer.size() >= batchSize) {
+                        if (fullBatches == null) {
+                            fullBatches = new ArrayList<>();
+                        }
+                        fullBatches.add(swapBuffer());
+                    }
+                }
+            }
+        }
+        if (fullBatches != null) {
+            for (List<Object> batch : fullBatches) {
+                invokeBatch(batch);
+            }
+        }
+    }
+
+    public void flush() {
+        List<Object> batch;
+        synchronized (lock) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            batch = swapBuffer();
+        }
+        invokeBatch(batch);
+    }
+
+    // the periodic flush is cancelled, so it doesn't keep the listener reachable or call it after
+    // its @PreDestroy, and whatever is buffered is delivered right away
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        synchronized (lock) {
+            closed = true;
+        }
+        flushQuietly();
+    }
+
+    private void invokeBatch(List<Object> batch) {
+        synchronized (invokeLock) {
+            invoke(batch);
+        }
+    }
+
+    // the scheduled flush must not die with the listener's exception
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.ERROR, "Batch event listener " + getName() + " failed", e);
+        }
+    }
+
+    private List<Object> swapBuffer() {
+        List<Object> batch = buffer;
+        buffer = new ArrayList<>(batchSize);
+        return batch;
+    }
+}
@@ -0,0 +1,102 @@
+package framework.events;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes published events to the listeners whose parameter type the event is an instance of, so
+ * listeners for a supertype or an interface of the event receive it as well.
+ * <p>
+ * Matching listeners are worked out once per concrete event class and cached; publishing an event
+ * of a known class is a map lookup plus one call per matching listener. Registering a listener
+ * replaces the listeners together with their cache, which only happens while the context starts, so a
+ * lookup racing with it can't put listeners of the old registration into the new cache.
+ */
+public class EventDispatcher {
+    private static final EventListenerBinding[] NO_LISTENERS = new EventListenerBinding[0];
+
+    private volatile Registration registration = new Registration(NO_LISTENERS);
+
+    public synchronized void register(EventListenerBinding binding) {
+        EventListenerBinding[] listeners = registration.listeners;
+        EventListenerBinding[] updated = new EventListenerBinding[listeners.length + 1];
+        System.arraycopy(listeners, 0, updated, 0, listeners.length);
+        updated[listeners.length] = binding;
+        registration = new Registration(updated);
+    }
+
+    public void dispatch(Object event) {
+        for (EventListenerBinding binding : getListeners(event.getClass())) {
+            binding.deliver(event);
+        }
+    }
+
+    /**
+     * Same as dispatching every event on its own, except that batch listeners receive all of their
+     * events in one go and listeners are only looked up again when the event class changes.
+     */
+    public void dispatchAll(Collection<?> events) {
+        Map<BatchingEventListenerBinding, List<Object>> batches = null;
+        Class<?> lastEventClass = null;
+        EventListenerBinding[] bindings = NO_LISTENERS;
+
+        for (Object event : events) {
+            if (event == null) {
+                continue;
+            }
+            if (event.getClass() != lastEventClass) {
+                lastEventClass = event.getClass();
+                bindings = getListeners(lastEventClass);
+            }
+            for (EventListenerBinding binding : bindings) {
+                if (binding instanceof BatchingEventListenerBinding batching) {
+                    if (batches == null) {
+                        batches = new IdentityHashMap<>();
+                    }
+                    batches.computeIfAbsent(batching, k -> new ArrayList<>()).add(event);
+                } else {
+                    binding.deliver(event);
+                }
+            }
+        }
+
+        if (batches != null) {
+            batches.forEach(BatchingEventListenerBinding::deliverAll);
+        }
+    }
+
+    /**
+     * @param eventClass - concrete class of a published event
+     * @return listeners accepting it, in registration order. Shared, don't modify it
+     */
+    public EventListenerBinding[] getListeners(Class<?> eventClass) {
+        Registration current = registration;
+        EventListenerBinding[] matching = current.listenersByEventClass.get(eventClass);
+        if (matching == null) {
+            matching = current.listenersByEventClass.computeIfAbsent(eventClass, current::resolveListeners);
+        }
+        return matching;
+    }
+
+    public List<EventListenerBinding> getAllListeners() {
+        return List.of(registration.listeners);
+    }
+
+    // the registered listeners and the cache worked out from exactly those
+    private record Registration(EventListenerBinding[] listeners,
+                                Map<Class<?>, EventListenerBinding[]> listenersByEventClass) {
+        Registration(EventListenerBinding[] listeners) {
+            this(listeners, new ConcurrentHashMap<>());
+        }
+
+        EventListenerBinding[] resolveListeners(Class<?> eventClass) {
+            List<EventListenerBinding> matching = new ArrayList<>();
+            for (EventListenerBinding binding : listeners) {
+                if (binding.accepts(eventClass)) {
+                    matching.add(binding);
+                }
+            }
+            return matching.isEmpty() ? NO_LISTENERS : matching.toArray(EventListenerBinding[]::new);
+        }
+    }
+}
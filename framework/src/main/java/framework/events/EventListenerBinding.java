@@ -0,0 +1,97 @@
+package framework.events;
+
+import framework.metrics.Counter;
+import framework.metrics.LatencyHistogram;
+import framework.metrics.MetricsRegistry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * An @EventListener method bound to its instance. The method handle is adapted to {@code (Object)void}
+ * once, so delivering an event is a single exact invocation.
+ * <p>
+ * Every invocation's latency goes into `events.listener.latency` and every exception into
+ * `events.listener.failures` of the {@link MetricsRegistry}, labeled with the listener's name.
+ */
+public class EventListenerBinding {
+    private static final MethodType LISTENER_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private final Class<?> eventType;
+    private final String name;
+    private final MethodHandle handle;
+    private final LatencyHistogram latency;
+    private final Counter failures;
+
+    public EventListenerBinding(Object instance, Method method, Class<?> eventType) throws IllegalAccessException {
+        method.setAccessible(true);
+        this.eventType = eventType;
+        this.name = method.getDeclaringClass().getName() + "#" + method.getName();
+        this.handle = MethodHandles.lookup().unreflect(method).bindTo(instance).asType(LISTENER_TYPE);
+        this.latency = MetricsRegistry.getDefault().histogram("events.listener.latency", "listener", name);
+        this.failures = MetricsRegistry.getDefault().counter("events.listener.failures", "listener", name);
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean accepts(Class<?> publishedType) {
+        return eventType.isAssignableFrom(publishedType);
+    }
+
+    /**
+     * Hands the event to the listener. Synchronous listeners are invoked right away on the caller's thread.
+     */
+    public void deliver(Object event) {
+        invoke(event);
+    }
+
+    protected void invoke(Object event) {
+        long start = System.nanoTime();
+        try {
+            handle.invokeExact(event);
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            throw e;
+        } catch (Throwable e) {
+            failures.increment();
+            throw new RuntimeException(e);
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Called when the context is closed. Events delivered from now on are handed to the listener on
+     * the caller's thread, queued and buffered ones are still delivered.
+     */
+    public void close() {
+    }
+
+    /**
+     * @param deadlineNanos - System.nanoTime() to stop waiting at
+     * @return false if events delivered before {@link #close()} are still waiting when the deadline passes
+     */
+    public boolean awaitClosed(long deadlineNanos) throws InterruptedException {
+        return true;
+    }
+
+    /**
+     * @return invocations that threw an exception
+     */
+    public long getFailureCount() {
+        return failures.count();
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + eventType.getName() + ")";
+    }
+}
@@ -1,17 +1,21 @@
 package framework.events;
 
+import framework.annotations.EventListener;
 import framework.annotations.Service;
-import framework.utils.PropertyAccessor;
+import framework.metrics.Counter;
+import framework.metrics.MetricsRegistry;
 
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
 
 @Service
 public class FrameworkPublisher {
-    private PropertyChangeSupport support;
+    private final EventDispatcher dispatcher;
+    private final Counter published = MetricsRegistry.getDefault().counter("events.published");
 
     public FrameworkPublisher() {
-        support = new PropertyChangeSupport(this);
+        dispatcher = new EventDispatcher();
     }
 
     public void publishEvent(Object object) {
@@ -19,14 +23,81 @@ public class FrameworkPublisher {
             System.out.println("Cannot publish event: Object is null");
             return;
         }
-        support.firePropertyChange(object.getClass().getSimpleName(), null, object);
+        published.increment();
+        dispatcher.dispatch(object);
     }
 
-    public void addPropertyChangeListener(PropertyChangeListener listener) {
-        support.addPropertyChangeListener(listener);
+    /**
+     * Publishes a number of events at once. Batch listeners get all of their matching events in a
+     * single buffer operation, every other listener is called once per event as with publishEvent.
+     */
+    public void publishAll(Collection<?> objects) {
+        if (objects == null || objects.isEmpty()) {
+            return;
+        }
+        published.add(objects.size());
+        dispatcher.dispatchAll(objects);
+    }
+
+    /**
+     * @param instance  - service instance the listener method is called on
+     * @param method    - method annotated with @EventListener
+     * @param eventType - type of the method's only parameter, events assignable to it are delivered.
+     *                  For a batch listener taking a List, the list's element type
+     */
+    public void addEventListener(Object instance, Method method, Class<?> eventType) throws IllegalAccessException {
+        EventListener settings = method.getAnnotation(EventListener.class);
+
+        if (method.getParameterTypes()[0] == List.class) {
+            dispatcher.register(new BatchingEventListenerBinding(instance, method, eventType,
+                    settings != null ? settings.batchSize() : 100,
+                    settings != null ? settings.batchWindowMillis() : 1000L));
+        } else if (settings != null && settings.async()) {
+            dispatcher.register(new AsyncEventListenerBinding(instance, method, eventType,
+                    settings.queueCapacity(), settings.backpressure()));
+        } else {
+            dispatcher.register(new EventListenerBinding(instance, method, eventType));
+        }
+    }
+
+    /**
+     * Drains the listeners when the context is closed: async listeners deliver their queues, batch
+     * listeners their buffers. Events published meanwhile are delivered on the publisher's thread.
+     *
+     * @param deadlineNanos - System.nanoTime() after which queued events are dropped
+     * @return false if some listener still had queued events at the deadline
+     */
+    public boolean close(long deadlineNanos) {
+        List<EventListenerBinding> listeners = dispatcher.getAllListeners();
+        close();
+
+        boolean drained = true;
+        try {
+            for (EventListenerBinding listener : listeners) {
+                drained &= listener.awaitClosed(deadlineNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return drained;
+    }
+
+    /**
+     * Closes the listeners without waiting for them to drain, when the context is discarded. Async
+     * listeners still deliver their queues on their own threads, batch listeners their buffers right away.
+     */
+    public void close() {
+        dispatcher.getAllListeners().forEach(EventListenerBinding::close);
     }
 
-    public void removePropertyChangeListener(PropertyChangeListener listener) {
-        support.removePropertyChangeListener(listener);
+    /**
+     * @return queue depth and lag of every async listener
+     */
+    public List<ListenerQueueStats> getAsyncListenerStats() {
+        return dispatcher.getAllListeners().stream()
+                .filter(AsyncEventListenerBinding.class::isInstance)
+                .map(binding -> ((AsyncEventListenerBinding) binding).getStats())
+                .toList();
     }
 }
@@ -0,0 +1,15 @@
+package framework.events;
+
+/**
+ * Point in time view of an async listener's queue.
+ *
+ * @param listener  - declaring class and method of the listener
+ * @param depth     - events waiting to be delivered
+ * @param capacity  - maximum number of waiting events
+ * @param lagNanos  - how long the oldest waiting event has been queued, 0 if the queue is empty
+ * @param dropped   - events discarded because of backpressure
+ * @param failed    - events the listener threw an exception for
+ */
+public record ListenerQueueStats(String listener, int depth, int capacity, long lagNanos,
+                                 long dropped, long failed) {
+}
@@ -0,0 +1,24 @@
+package framework.exceptions;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+public class CircularDependencyException extends Exception {
+    public CircularDependencyException(Collection<? extends Class<?>> unresolvedServiceClasses) {
+        super(generateErrorMessage(unresolvedServiceClasses));
+    }
+
+    private static String generateErrorMessage(Collection<? extends Class<?>> unresolvedServiceClasses) {
+        String serviceClassNames = unresolvedServiceClasses.stream()
+                .map(Class::getName)
+                .sorted()
+                .collect(Collectors.joining("\n\t- ", "- ", ""));
+        return String.format("""
+                \nError Message:
+                    Constructor dependencies of the following classes form a cycle and can't be created:
+                    %s
+                    Break the cycle by moving one of the dependencies to a field or setter with @Autowired,
+                    or by marking an interface typed constructor parameter @Lazy.
+                """, serviceClassNames);
+    }
+}
@@ -0,0 +1,14 @@
+package framework.exceptions;
+
+/**
+ * Thrown by ApplicationContext#start when the context can't be started. Whatever it had started
+ * already is stopped again, so the context can be dropped.
+ */
+public class ContextStartupException extends RuntimeException {
+    public ContextStartupException(Throwable cause) {
+        super(String.format("""
+                \nError Message:
+                    Application context couldn't be started: %s
+                """, cause.getMessage()), cause);
+    }
+}
@@ -0,0 +1,26 @@
+package framework.exceptions;
+
+import java.lang.reflect.Type;
+
+public class PropertyConversionException extends Exception {
+    public PropertyConversionException(String value, Type targetType, Throwable cause) {
+        super(generateErrorMessage(value, targetType, cause), cause);
+    }
+
+    public PropertyConversionException(Type targetType) {
+        super(String.format("""
+                \nError Message:
+                    Properties can't be converted to type: %s.
+                    Supported are primitives and their wrappers, String, enums, Duration, DataSize
+                    and arrays, Lists and Sets of those.
+                """, targetType.getTypeName()));
+    }
+
+    private static String generateErrorMessage(String value, Type targetType, Throwable cause) {
+        return String.format("""
+                \nError Message:
+                    Failed to convert property value '%s' to type: %s.
+                    %s
+                """, value, targetType.getTypeName(), cause.getMessage());
+    }
+}
@@ -0,0 +1,290 @@
+package framework.index;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger.Level;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+/**
+ * Finds the classes of packages that carry given annotations, in directories and jars of the classpath.
+ * <p>
+ * Class files are read concurrently and only their constant pool and class level annotations are
+ * parsed, nothing is loaded. Only the classes carrying one of the annotations are loaded afterward,
+ * without being initialized.
+ */
+public class ClassPathScanner {
+    private static final System.Logger LOGGER = System.getLogger(ClassPathScanner.class.getName());
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final ClassLoader classLoader;
+    private final @Nullable ForkJoinPool pool;
+
+    /**
+     * @param classLoader - loader used to find the packages and to load the annotated classes
+     * @param pool        - reads the class files, null reads them on the calling thread
+     */
+    public ClassPathScanner(ClassLoader classLoader, @Nullable ForkJoinPool pool) {
+        this.classLoader = classLoader;
+        this.pool = pool;
+    }
+
+    /**
+     * @param basePackages - packages, subpackages included, to scan
+     * @param annotations  - annotation types to look for, runtime or class retention
+     * @return the classes carrying each annotation, every annotation has an entry
+     */
+    public Map<Class<?>, Set<Class<?>>> scan(Collection<String> basePackages, Collection<Class<?>> annotations)
+            throws IOException, ClassNotFoundException {
+        Map<String, Class<?>> annotationsByDescriptor = new HashMap<>();
+        for (Class<?> annotation : annotations) {
+            annotationsByDescriptor.put("L" + annotation.getName().replace('.', '/') + ";", annotation);
+        }
+
+        List<ClassFile> classFiles = new ArrayList<>();
+        List<ZipFile> jars = new ArrayList<>();
+        try {
+            for (String resourcePath : getResourcePaths(basePackages)) {
+                Enumeration<URL> roots = classLoader.getResources(resourcePath);
+                while (roots.hasMoreElements()) {
+                    collectClassFiles(roots.nextElement(), resourcePath, classFiles, jars);
+                }
+            }
+
+            Map<Class<?>, Set<Class<?>>> annotated = new HashMap<>();
+            for (Class<?> annotation : annotations) {
+                annotated.put(annotation, new HashSet<>());
+            }
+            for (Map.Entry<String, Set<String>> header : readHeaders(classFiles, annotationsByDescriptor.keySet())) {
+                Class<?> type = Class.forName(header.getKey(), false, classLoader);
+                for (String descriptor : header.getValue()) {
+                    annotated.get(annotationsByDescriptor.get(descriptor)).add(type);
+                }
+            }
+            return annotated;
+        } finally {
+            for (ZipFile jar : jars) {
+                jar.close();
+            }
+        }
+    }
+
+    // a package that's also a prefix of another one is only scanned once
+    private static Set<String> getResourcePaths(Collection<String> basePackages) {
+        List<String> sorted = basePackages.stream()
+                .map(basePackage -> basePackage.replace('.', '/'))
+                .sorted()
+                .toList();
+        Set<String> resourcePaths = new LinkedHashSet<>();
+        String previous = null;
+        for (String resourcePath : sorted) {
+            if (previous == null || !resourcePath.equals(previous) && !resourcePath.startsWith(previous + "/")) {
+                resourcePaths.add(resourcePath);
+                previous = resourcePath;
+            }
+        }
+        return resourcePaths;
+    }
+
+    private void collectClassFiles(URL root, String resourcePath, List<ClassFile> classFiles, List<ZipFile> jars)
+            throws IOException {
+        switch (root.getProtocol()) {
+            case "file" -> {
+                try (Stream<Path> files = Files.walk(Path.of(toUri(root)))) {
+                    files.filter(file -> file.toString().endsWith(CLASS_SUFFIX))
+                            .forEach(file -> classFiles.add(() -> Files.newInputStream(file)));
+                }
+            }
+            case "jar" -> {
+                JarURLConnection connection = (JarURLConnection) root.openConnection();
+                connection.setUseCaches(false);
+                ZipFile jar = new ZipFile(Path.of(toUri(connection.getJarFileURL())).toFile());
+                jars.add(jar);
+                String prefix = resourcePath + "/";
+                jar.stream()
+                        .filter(entry -> !entry.isDirectory() && entry.getName().startsWith(prefix)
+                                && entry.getName().endsWith(CLASS_SUFFIX))
+                        .forEach(entry -> classFiles.add(() -> jar.getInputStream(entry)));
+            }
+            default -> LOGGER.log(Level.WARNING, "Ignoring classpath entry " + root + " since only directories and " +
+                    "jars can be scanned");
+        }
+    }
+
+    private static URI toUri(URL url) throws IOException {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // class name and the wanted annotations of every class file carrying at least one of them
+    private List<Map.Entry<String, Set<String>>> readHeaders(List<ClassFile> classFiles, Set<String> descriptors)
+            throws IOException {
+        try {
+            if (pool == null || classFiles.size() < 2) {
+                return readHeaders(classFiles.stream(), descriptors);
+            }
+            return pool.submit(() -> readHeaders(classFiles.parallelStream(), descriptors)).get();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static List<Map.Entry<String, Set<String>>> readHeaders(Stream<ClassFile> classFiles,
+                                                                   Set<String> descriptors) {
+        return classFiles
+                .map(classFile -> {
+                    try (InputStream in = classFile.open()) {
+                        return readHeader(in.readAllBytes(), descriptors);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Skips the constant pool, interfaces, fields and methods to the class attributes and reads the
+     * type of every annotation in RuntimeVisibleAnnotations and RuntimeInvisibleAnnotations.
+     *
+     * @param bytes       - content of a class file
+     * @param descriptors - annotation type descriptors to look for, e.g. Lframework/annotations/Service;
+     * @return the class name and the found descriptors, null if it has none of them or isn't a class file
+     */
+    static @Nullable Map.Entry<String, Set<String>> readHeader(byte[] bytes, Set<String> descriptors)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < 10 || in.readInt() != MAGIC) {
+            return null;
+        }
+        in.skipBytes(4);
+
+        int constantPoolCount = in.readUnsignedShort();
+        String[] utf8 = new String[constantPoolCount];
+        int[] classNameIndexes = new int[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 7 -> classNameIndexes[i] = in.readUnsignedShort();
+                case 8, 16, 19, 20 -> in.skipBytes(2);
+                case 15 -> in.skipBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipBytes(4);
+                case 5, 6 -> {
+                    in.skipBytes(8);
+                    // takes two entries
+                    i++;
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        // a class without any of the annotations in its constant pool can't carry them
+        boolean referenced = false;
+        for (String constant : utf8) {
+            if (constant != null && descriptors.contains(constant)) {
+                referenced = true;
+                break;
+            }
+        }
+        if (!referenced) {
+            return null;
+        }
+
+        in.skipBytes(2);
+        String className = utf8[classNameIndexes[in.readUnsignedShort()]].replace('/', '.');
+        in.skipBytes(2);
+        in.skipBytes(2 * in.readUnsignedShort());
+        for (int members = 0; members < 2; members++) {
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                in.skipBytes(6);
+                skipAttributes(in);
+            }
+        }
+
+        Set<String> found = new HashSet<>();
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (!"RuntimeVisibleAnnotations".equals(name) && !"RuntimeInvisibleAnnotations".equals(name)) {
+                in.skipBytes(length);
+                continue;
+            }
+            int annotationCount = in.readUnsignedShort();
+            for (int j = 0; j < annotationCount; j++) {
+                String descriptor = utf8[in.readUnsignedShort()];
+                if (descriptors.contains(descriptor)) {
+                    found.add(descriptor);
+                }
+                skipElementValuePairs(in);
+            }
+        }
+        return found.isEmpty() ? null : Map.entry(className, found);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private static void skipElementValuePairs(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.skipBytes(2);
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> in.skipBytes(2);
+            case 'e' -> in.skipBytes(4);
+            case '@' -> {
+                in.skipBytes(2);
+                skipElementValuePairs(in);
+            }
+            case '[' -> {
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(in);
+                }
+            }
+            default -> throw new IOException("Unknown annotation element value tag " + (char) tag);
+        }
+    }
+
+    private interface ClassFile {
+        InputStream open() throws IOException;
+    }
+}
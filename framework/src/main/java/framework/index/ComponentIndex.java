@@ -0,0 +1,180 @@
+package framework.index;
+
+import framework.annotations.ComponentScan;
+import framework.annotations.ConfigurationProperties;
+import framework.annotations.Service;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Component metadata for the application: the {@code @Service} and {@code @ConfigurationProperties}
+ * types plus the constructors the processor resolved for them.
+ * <p>
+ * Normally read from the index written by {@link ComponentIndexProcessor} at compile time. When no
+ * index is on the classpath (e.g. the application was compiled with {@code -proc:none}) it is
+ * built by a {@link ClassPathScanner} instead, in which case no constructors are known up front.
+ */
+public class ComponentIndex {
+    public static final String INDEX_LOCATION = "META-INF/framework/components.index";
+
+    static final String SERVICE = "service";
+    static final String CONFIGURATION = "config";
+    static final String CONSTRUCTOR = "constructor";
+
+    private final Set<Class<?>> serviceTypes;
+    private final Set<Class<?>> configurationTypes;
+    private final Map<Class<?>, Entry> entries;
+
+    ComponentIndex(Set<Class<?>> serviceTypes, Set<Class<?>> configurationTypes,
+                   Map<Class<?>, Entry> entries) {
+        this.serviceTypes = serviceTypes;
+        this.configurationTypes = configurationTypes;
+        this.entries = entries;
+    }
+
+    /**
+     * @param classLoader - loader used to find the index resources and the indexed classes
+     * @return the merged index of every {@link #INDEX_LOCATION} on the classpath, empty if there is none
+     */
+    public static Optional<ComponentIndex> load(ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        Enumeration<URL> resources = classLoader.getResources(INDEX_LOCATION);
+        if (!resources.hasMoreElements()) {
+            return Optional.empty();
+        }
+
+        Set<Class<?>> serviceTypes = new HashSet<>();
+        Set<Class<?>> configurationTypes = new HashSet<>();
+        Map<Class<?>, Entry> entries = new HashMap<>();
+
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                Entry current = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] parts = line.split(" ", 3);
+                    switch (parts[0]) {
+                        case SERVICE, CONFIGURATION -> {
+                            Class<?> type = Class.forName(parts[1], false, classLoader);
+                            (SERVICE.equals(parts[0]) ? serviceTypes : configurationTypes).add(type);
+                            current = new Entry();
+                            entries.put(type, current);
+                        }
+                        case CONSTRUCTOR -> current.constructorParameters =
+                                parts.length < 2 || parts[1].isEmpty() ? List.of() : List.of(parts[1].split(","));
+                        default -> throw new IOException("Unknown component index entry '" + line + "' in " + resource);
+                    }
+                }
+            }
+        }
+
+        return Optional.of(new ComponentIndex(serviceTypes, configurationTypes, entries));
+    }
+
+    /**
+     * Fallback when no compile time index is present; one pass over the class files serves both
+     * annotation lookups.
+     *
+     * @param classLoader  - loader whose directories and jars are scanned
+     * @param basePackages - packages, subpackages included, to scan
+     * @param pool         - reads the class files, null reads them on the calling thread
+     */
+    public static ComponentIndex scan(ClassLoader classLoader, Collection<String> basePackages,
+                                      @Nullable ForkJoinPool pool) throws IOException, ClassNotFoundException {
+        Map<Class<?>, Set<Class<?>>> annotated = new ClassPathScanner(classLoader, pool)
+                .scan(basePackages, List.of(Service.class, ConfigurationProperties.class));
+        return new ComponentIndex(annotated.get(Service.class), annotated.get(ConfigurationProperties.class), Map.of());
+    }
+
+    /**
+     * @param basePackages   - packages whose types, subpackages included, are kept. Empty keeps every type
+     * @param excludeFilters - types matching any of them are left out
+     */
+    public ComponentIndex restrictTo(Collection<String> basePackages, ComponentScan.Filter... excludeFilters) {
+        if (basePackages.isEmpty() && excludeFilters.length == 0) {
+            return this;
+        }
+        return new ComponentIndex(
+                serviceTypes.stream()
+                        .filter(type -> isIncluded(type, basePackages, excludeFilters))
+                        .collect(Collectors.toSet()),
+                configurationTypes.stream()
+                        .filter(type -> isIncluded(type, basePackages, excludeFilters))
+                        .collect(Collectors.toSet()),
+                entries);
+    }
+
+    private static boolean isIncluded(Class<?> type, Collection<String> basePackages,
+                                      ComponentScan.Filter[] excludeFilters) {
+        if (!basePackages.isEmpty()
+                && basePackages.stream().noneMatch(basePackage -> type.getName().startsWith(basePackage + "."))) {
+            return false;
+        }
+        for (ComponentScan.Filter filter : excludeFilters) {
+            if (matches(filter, type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(ComponentScan.Filter filter, Class<?> type) {
+        return switch (filter.type()) {
+            case ANNOTATION -> Arrays.stream(filter.classes())
+                    .anyMatch(annotation -> annotation.isAnnotation()
+                            && type.isAnnotationPresent(annotation.asSubclass(Annotation.class)));
+            case ASSIGNABLE_TYPE -> Arrays.stream(filter.classes())
+                    .anyMatch(supertype -> supertype.isAssignableFrom(type));
+            case REGEX -> Arrays.stream(filter.pattern())
+                    .anyMatch(pattern -> type.getName().matches(pattern));
+        };
+    }
+
+    public Set<Class<?>> getServiceTypes() {
+        return serviceTypes;
+    }
+
+    public Set<Class<?>> getConfigurationTypes() {
+        return configurationTypes;
+    }
+
+    /**
+     * @param type - service class about to be instantiated
+     * @return the constructor the processor resolved, empty when unindexed or when the processor didn't find one
+     */
+    public Optional<Constructor<?>> getPreferredConstructor(Class<?> type) {
+        Entry entry = entries.get(type);
+        if (entry == null || entry.constructorParameters == null) {
+            return Optional.empty();
+        }
+        return Arrays.stream(type.getConstructors())
+                .filter(constructor -> Arrays.stream(constructor.getParameterTypes())
+                        .map(Class::getName)
+                        .toList()
+                        .equals(entry.constructorParameters))
+                .findFirst();
+    }
+
+    // null if the type isn't indexed
+    Entry getEntry(Class<?> type) {
+        return entries.get(type);
+    }
+
+    static class Entry {
+        List<String> constructorParameters;
+    }
+}
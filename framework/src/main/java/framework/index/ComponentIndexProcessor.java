@@ -0,0 +1,262 @@
+package framework.index;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Compile time counterpart of {@link ComponentIndex}. Collects every type annotated with
+ * {@code @Service} or {@code @ConfigurationProperties} in the module being compiled and writes
+ * them, together with the constructor the framework will call, to {@link ComponentIndex#INDEX_LOCATION}.
+ * <p>
+ * Also generates the plain Java constructor calls and injection behind
+ * {@link framework.injection.GeneratedContext}, unless the compiler is passed {@code -Aframework.aot=false}.
+ * <p>
+ * Registered through {@code META-INF/services}, so any module that has the framework on its
+ * compile classpath picks it up without extra configuration.
+ * <p>
+ * An incremental compile only hands the processor the changed types, so the entries of the index
+ * already in the class output are kept for the types that still exist and are still annotated.
+ */
+@SupportedAnnotationTypes({
+        ComponentIndexProcessor.SERVICE,
+        ComponentIndexProcessor.CONFIGURATION_PROPERTIES
+})
+@SupportedOptions(ComponentIndexProcessor.AOT_OPTION)
+public class ComponentIndexProcessor extends AbstractProcessor {
+    static final String SERVICE = "framework.annotations.Service";
+    static final String CONFIGURATION_PROPERTIES = "framework.annotations.ConfigurationProperties";
+    static final String AOT_OPTION = "framework.aot";
+
+    private static final String AUTOWIRED = "framework.annotations.Autowired";
+
+    // keyed by binary name so repeated rounds don't duplicate entries
+    private final Map<String, String> entries = new TreeMap<>();
+    private GeneratedContextWriter generatedContextWriter;
+    private boolean contextWritten;
+    private String contextName;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        if (!"false".equals(processingEnv.getOptions().get(AOT_OPTION))) {
+            generatedContextWriter = new GeneratedContextWriter(processingEnv);
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        int entryCount = entries.size();
+        for (TypeElement annotation : annotations) {
+            String kind = annotation.getQualifiedName().contentEquals(SERVICE)
+                    ? ComponentIndex.SERVICE
+                    : ComponentIndex.CONFIGURATION;
+
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                String binaryName = binaryName(type);
+                // a type carrying both annotations is registered as a service
+                if (ComponentIndex.CONFIGURATION.equals(kind) && entries.containsKey(binaryName)) {
+                    continue;
+                }
+                entries.put(binaryName, describe(kind, type));
+                if (generatedContextWriter != null && ComponentIndex.SERVICE.equals(kind)) {
+                    if (contextWritten) {
+                        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                                "Service generated after the generated context was written, it's injected through reflection",
+                                type);
+                    }
+                    generatedContextWriter.writeFactory(type, preferredConstructor(type));
+                }
+            }
+        }
+
+        if (entries.isEmpty()) {
+            return false;
+        }
+        // sources created in the last round aren't processed, so the context is written in the first round
+        // that finds no new services, usually the one compiling the factories
+        if (generatedContextWriter != null && !contextWritten
+                && (roundEnv.processingOver() || entries.size() == entryCount)) {
+            contextName = generatedContextWriter.writeContext();
+            contextWritten = true;
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            if (contextName != null) {
+                generatedContextWriter.writeContextList(contextName);
+            }
+        }
+        return false;
+    }
+
+    private String describe(String kind, TypeElement type) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(kind).append(' ').append(binaryName(type)).append('\n');
+
+        ExecutableElement constructor = preferredConstructor(type);
+        if (constructor != null) {
+            String parameterTypes = parameterTypes(constructor);
+            sb.append(ComponentIndex.CONSTRUCTOR);
+            if (!parameterTypes.isEmpty()) {
+                sb.append(' ').append(parameterTypes);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    // mirrors Framework#getPreferredConstructor: the @Autowired one, else the only public one
+    private ExecutableElement preferredConstructor(TypeElement type) {
+        if (type.getKind().isInterface() || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return null;
+        }
+        List<ExecutableElement> publicConstructors = ElementFilter.constructorsIn(type.getEnclosedElements())
+                .stream()
+                .filter(c -> c.getModifiers().contains(Modifier.PUBLIC))
+                .toList();
+
+        List<ExecutableElement> autowired = publicConstructors.stream()
+                .filter(this::isAutowired)
+                .toList();
+        if (autowired.size() == 1) {
+            return autowired.getFirst();
+        }
+        return publicConstructors.size() == 1 ? publicConstructors.getFirst() : null;
+    }
+
+    private boolean isAutowired(Element element) {
+        return element.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> ((TypeElement) mirror.getAnnotationType().asElement())
+                        .getQualifiedName().contentEquals(AUTOWIRED));
+    }
+
+    private String parameterTypes(ExecutableElement executable) {
+        return executable.getParameters().stream()
+                .map(p -> typeName(p.asType()))
+                .collect(Collectors.joining(","));
+    }
+
+    // what Class.getName() returns for the parameter type, e.g. foo.Bar$Baz, [Lfoo.Bar; or [I
+    private String typeName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        return switch (erased.getKind()) {
+            case DECLARED -> binaryName((TypeElement) ((DeclaredType) erased).asElement());
+            case ARRAY -> "[" + descriptor(((ArrayType) erased).getComponentType());
+            default -> erased.toString();
+        };
+    }
+
+    private String descriptor(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        return switch (erased.getKind()) {
+            case BOOLEAN -> "Z";
+            case BYTE -> "B";
+            case CHAR -> "C";
+            case SHORT -> "S";
+            case INT -> "I";
+            case LONG -> "J";
+            case FLOAT -> "F";
+            case DOUBLE -> "D";
+            case ARRAY -> "[" + descriptor(((ArrayType) erased).getComponentType());
+            default -> "L" + typeName(erased) + ";";
+        };
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeIndex() {
+        Map<String, String> merged = new TreeMap<>(readPreviousIndex());
+        merged.putAll(entries);
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_LOCATION);
+            try (Writer writer = resource.openWriter()) {
+                writer.write("# Generated by " + getClass().getName() + ", do not edit\n");
+                for (String entry : merged.values()) {
+                    writer.write(entry);
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Could not write component index, falling back to classpath scanning: " + e.getMessage());
+        }
+    }
+
+    // entries of the index from the previous compile whose types still exist with their annotation
+    private Map<String, String> readPreviousIndex() {
+        Map<String, String> previous = new TreeMap<>();
+        String content;
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_LOCATION);
+            try (Reader reader = resource.openReader(true)) {
+                content = new BufferedReader(reader).lines().collect(Collectors.joining("\n", "", "\n"));
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return previous;
+        } catch (IOException | IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Could not read the previous component index, writing a new one: " + e.getMessage());
+            return previous;
+        }
+
+        String binaryName = null;
+        StringBuilder entry = new StringBuilder();
+        for (String line : content.split("\n")) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(" ", 3);
+            if (ComponentIndex.SERVICE.equals(parts[0]) || ComponentIndex.CONFIGURATION.equals(parts[0])) {
+                keepIfStillAnnotated(previous, binaryName, entry);
+                binaryName = parts[1];
+                entry.setLength(0);
+            } else if (!ComponentIndex.CONSTRUCTOR.equals(parts[0])) {
+                // member lines of an index written by an older version
+                continue;
+            }
+            entry.append(line).append('\n');
+        }
+        keepIfStillAnnotated(previous, binaryName, entry);
+        return previous;
+    }
+
+    private void keepIfStillAnnotated(Map<String, String> previous, String binaryName, StringBuilder entry) {
+        if (binaryName == null || entries.containsKey(binaryName)) {
+            return;
+        }
+        // nested types are looked up by their canonical name
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+        if (type == null) {
+            return;
+        }
+        boolean annotated = type.getAnnotationMirrors().stream()
+                .map(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())
+                .anyMatch(name -> name.equals(SERVICE) || name.equals(CONFIGURATION_PROPERTIES));
+        if (annotated) {
+            previous.put(binaryName, entry.toString());
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package framework.index;
+
+import framework.injection.GeneratedContext;
+
+import java.io.*;
+import java.lang.System.Logger.Level;
+import java.lang.reflect.Constructor;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * What startup worked out about the application, saved by a training run so that later startups
+ * can skip discovery: the active service and configuration types with their constructor choices,
+ * every type that can be injected and the creation levels of the dependency graph.
+ * <p>
+ * Binary layout: magic, version, active profile, scan scope, checksum of the component index resources, a
+ * table of classes (name, flags, class file CRC32, constructor parameters) and
+ * the creation levels as indexes into that table.
+ * <p>
+ * A snapshot is only used if it was taken for the same profile and scan scope (base packages and
+ * exclude filters), and every class in it, as well as
+ * the component index, still has the checksum it had in the training run. Services added to an
+ * application without a component index can't be noticed, such applications have to retrain.
+ */
+public class ContextSnapshot {
+    private static final System.Logger LOGGER = System.getLogger(ContextSnapshot.class.getName());
+    private static final int MAGIC = 0x46574358;
+    private static final int VERSION = 3;
+    private static final int SERVICE = 1;
+    private static final int CONFIGURATION = 1 << 1;
+    private static final int MANAGED = 1 << 2;
+
+    private final String profile;
+    private final String scanScope;
+    private final ComponentIndex componentIndex;
+    private final Set<Class<?>> managedTypes;
+    private final List<List<Class<?>>> creationLevels;
+
+    private ContextSnapshot(String profile, String scanScope, ComponentIndex componentIndex,
+                            Set<Class<?>> managedTypes, List<List<Class<?>>> creationLevels) {
+        this.profile = profile;
+        this.scanScope = scanScope;
+        this.componentIndex = componentIndex;
+        this.managedTypes = managedTypes;
+        this.creationLevels = creationLevels;
+    }
+
+    /**
+     * @param profile            - active profile, "" if there is none
+     * @param scanScope          - base packages and exclude filters the types were discovered with
+     * @param componentIndex     - index startup ran with
+     * @param serviceTypes       - service types active for the profile
+     * @param configurationTypes - configuration types active for the profile
+     * @param managedTypes       - types that can be injected
+     * @param constructors       - constructor chosen for every service class that has one
+     * @param creationLevels     - creation levels of the dependency graph
+     */
+    public static ContextSnapshot capture(String profile, String scanScope, ComponentIndex componentIndex,
+                                          Set<Class<?>> serviceTypes, Set<Class<?>> configurationTypes,
+                                          Set<Class<?>> managedTypes, Map<Class<?>, Constructor<?>> constructors,
+                                          List<List<Class<?>>> creationLevels) {
+        Map<Class<?>, ComponentIndex.Entry> entries = new HashMap<>();
+        Set<Class<?>> components = new HashSet<>(serviceTypes);
+        components.addAll(configurationTypes);
+
+        for (Class<?> type : components) {
+            ComponentIndex.Entry indexed = componentIndex.getEntry(type);
+            if (indexed != null) {
+                entries.put(type, indexed);
+                continue;
+            }
+
+            // scanned type, record the constructor the processor would have
+            ComponentIndex.Entry entry = new ComponentIndex.Entry();
+            Constructor<?> constructor = constructors.get(type);
+            if (constructor != null) {
+                entry.constructorParameters = Arrays.stream(constructor.getParameterTypes()).map(Class::getName).toList();
+            }
+            entries.put(type, entry);
+        }
+
+        ComponentIndex snapshotIndex = new ComponentIndex(Set.copyOf(serviceTypes), Set.copyOf(configurationTypes), entries);
+        return new ContextSnapshot(profile, scanScope, snapshotIndex, Set.copyOf(managedTypes), List.copyOf(creationLevels));
+    }
+
+    /**
+     * @return the snapshot, empty if there is none or it's out of date (the reason is logged)
+     */
+    public static Optional<ContextSnapshot> read(Path file, String activeProfile, String activeScanScope,
+                                                 ClassLoader classLoader) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return outdated(file, "it was written by another framework version");
+            }
+            String profile = in.readUTF();
+            if (!profile.equals(activeProfile)) {
+                return outdated(file, "it was taken for profile '" + profile + "'");
+            }
+            String scanScope = in.readUTF();
+            if (!scanScope.equals(activeScanScope)) {
+                return outdated(file, "it was taken for scan scope '" + scanScope + "'");
+            }
+            if (in.readLong() != indexChecksum(classLoader)) {
+                return outdated(file, "the component index changed");
+            }
+
+            int classCount = in.readInt();
+            Class<?>[] classes = new Class<?>[classCount];
+            Set<Class<?>> serviceTypes = new HashSet<>();
+            Set<Class<?>> configurationTypes = new HashSet<>();
+            Set<Class<?>> managedTypes = new HashSet<>();
+            Map<Class<?>, ComponentIndex.Entry> entries = new HashMap<>();
+
+            for (int i = 0; i < classCount; i++) {
+                String name = in.readUTF();
+                int flags = in.readByte();
+                long checksum = in.readLong();
+                if (checksum != classChecksum(name, classLoader)) {
+                    return outdated(file, name + " changed");
+                }
+                Class<?> type = Class.forName(name, false, classLoader);
+                classes[i] = type;
+
+                if ((flags & MANAGED) != 0) {
+                    managedTypes.add(type);
+                }
+                if ((flags & (SERVICE | CONFIGURATION)) != 0) {
+                    ((flags & SERVICE) != 0 ? serviceTypes : configurationTypes).add(type);
+                    entries.put(type, readEntry(in));
+                }
+            }
+
+            int levelCount = in.readInt();
+            List<List<Class<?>>> creationLevels = new ArrayList<>(levelCount);
+            for (int i = 0; i < levelCount; i++) {
+                int size = in.readInt();
+                List<Class<?>> level = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    level.add(classes[in.readInt()]);
+                }
+                creationLevels.add(List.copyOf(level));
+            }
+
+            return Optional.of(new ContextSnapshot(profile, scanScope,
+                    new ComponentIndex(serviceTypes, configurationTypes, entries), managedTypes, creationLevels));
+        } catch (IOException | ClassNotFoundException e) {
+            return outdated(file, e.toString());
+        }
+    }
+
+    public void write(Path file, ClassLoader classLoader) throws IOException {
+        // every class the snapshot mentions, services and configuration types first
+        Map<Class<?>, Integer> flagsByClass = new LinkedHashMap<>();
+        componentIndex.getServiceTypes().stream().sorted(Comparator.comparing(Class::getName))
+                .forEach(type -> flagsByClass.merge(type, SERVICE, (a, b) -> a | b));
+        componentIndex.getConfigurationTypes().stream().sorted(Comparator.comparing(Class::getName))
+                .forEach(type -> flagsByClass.merge(type, CONFIGURATION, (a, b) -> a | b));
+        managedTypes.stream().sorted(Comparator.comparing(Class::getName))
+                .forEach(type -> flagsByClass.merge(type, MANAGED, (a, b) -> a | b));
+        creationLevels.forEach(level -> level.forEach(type -> flagsByClass.putIfAbsent(type, 0)));
+
+        Map<Class<?>, Integer> indexes = new HashMap<>();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(profile);
+            out.writeUTF(scanScope);
+            out.writeLong(indexChecksum(classLoader));
+
+            out.writeInt(flagsByClass.size());
+            for (Map.Entry<Class<?>, Integer> type : flagsByClass.entrySet()) {
+                indexes.put(type.getKey(), indexes.size());
+                out.writeUTF(type.getKey().getName());
+                out.writeByte(type.getValue());
+                out.writeLong(classChecksum(type.getKey().getName(), classLoader));
+                if ((type.getValue() & (SERVICE | CONFIGURATION)) != 0) {
+                    writeEntry(out, componentIndex.getEntry(type.getKey()));
+                }
+            }
+
+            out.writeInt(creationLevels.size());
+            for (List<Class<?>> level : creationLevels) {
+                out.writeInt(level.size());
+                for (Class<?> type : level) {
+                    out.writeInt(indexes.get(type));
+                }
+            }
+        }
+        // readers never see a half written snapshot
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the classes of the context and their generated factories in the class list format of
+     * {@code -XX:SharedClassListFile}, to be archived with {@code java -Xshare:dump -XX:SharedArchiveFile=app.jsa}.
+     * A dynamic archive from {@code -XX:ArchiveClassesAtExit} during the training run covers JDK and
+     * framework classes as well.
+     */
+    public void writeClassList(Path file, ClassLoader classLoader) throws IOException {
+        Set<String> classNames = new TreeSet<>();
+        creationLevels.forEach(level -> level.forEach(type -> classNames.add(type.getName())));
+        componentIndex.getConfigurationTypes().forEach(type -> classNames.add(type.getName()));
+        managedTypes.forEach(type -> classNames.add(type.getName()));
+
+        Set<String> generatedClassNames = new TreeSet<>();
+        for (String className : classNames) {
+            // named like GeneratedContextWriter#factoryName does
+            generatedClassNames.add(className.replace('$', '_') + GeneratedContextWriter.FACTORY_SUFFIX);
+        }
+        generatedClassNames.addAll(GeneratedContext.classNames(classLoader));
+        generatedClassNames.removeIf(className -> classLoader.getResource(resourceName(className)) == null);
+        classNames.addAll(generatedClassNames);
+
+        Files.write(file, classNames.stream().map(className -> className.replace('.', '/')).toList());
+    }
+
+    public ComponentIndex getComponentIndex() {
+        return componentIndex;
+    }
+
+    public Set<Class<?>> getManagedTypes() {
+        return managedTypes;
+    }
+
+    public List<List<Class<?>>> getCreationLevels() {
+        return creationLevels;
+    }
+
+    private static ComponentIndex.Entry readEntry(DataInputStream in) throws IOException {
+        ComponentIndex.Entry entry = new ComponentIndex.Entry();
+        if (in.readBoolean()) {
+            entry.constructorParameters = readStrings(in);
+        }
+        return entry;
+    }
+
+    private static void writeEntry(DataOutputStream out, ComponentIndex.Entry entry) throws IOException {
+        out.writeBoolean(entry.constructorParameters != null);
+        if (entry.constructorParameters != null) {
+            writeStrings(out, entry.constructorParameters);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(in.readUTF());
+        }
+        return List.copyOf(strings);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static long classChecksum(String className, ClassLoader classLoader) throws IOException {
+        try (InputStream in = classLoader.getResourceAsStream(resourceName(className))) {
+            return in == null ? -1L : checksum(in, new CRC32());
+        }
+    }
+
+    private static String resourceName(String className) {
+        return className.replace('.', '/') + ".class";
+    }
+
+    private static long indexChecksum(ClassLoader classLoader) throws IOException {
+        CRC32 crc = new CRC32();
+        Enumeration<URL> resources = classLoader.getResources(ComponentIndex.INDEX_LOCATION);
+        while (resources.hasMoreElements()) {
+            try (InputStream in = resources.nextElement().openStream()) {
+                checksum(in, crc);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static long checksum(InputStream in, CRC32 crc) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            crc.update(buffer, 0, read);
+        }
+        return crc.getValue();
+    }
+
+    private static Optional<ContextSnapshot> outdated(Path file, String reason) {
+        LOGGER.log(Level.WARNING, "Ignoring context snapshot " + file + " since " + reason + ", starting without it");
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,453 @@
+package framework.index;
+
+import framework.injection.GeneratedContext;
+
+import javax.annotation.Nullable;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.util.*;
+
+/**
+ * Writes the sources behind {@link GeneratedContext} for the services found by {@link ComponentIndexProcessor}:
+ * a {@code <Service>_FrameworkFactory} in the service's own package, which can reach package private
+ * members, and a {@code GeneratedApplicationContext_<hash>} dispatching to them by class name, listed
+ * in {@link GeneratedContext#LOCATION}.
+ */
+class GeneratedContextWriter {
+    private static final String AUTOWIRED = "framework.annotations.Autowired";
+    private static final String VALUE = "framework.annotations.Value";
+    private static final String QUALIFIER = "framework.annotations.Qualifier";
+    private static final String LAZY = "framework.annotations.Lazy";
+    private static final String EVENT_LISTENER = "framework.annotations.EventListener";
+    private static final String PROVIDER = "framework.context.Provider";
+    private static final String PROVIDER_KIND = "PROVIDER";
+    static final String FACTORY_SUFFIX = "_FrameworkFactory";
+
+    private final ProcessingEnvironment processingEnv;
+    // binary name of the service -> qualified name of its factory
+    private final Map<String, String> instantiators = new TreeMap<>();
+    private final Map<String, String> injectors = new TreeMap<>();
+
+    GeneratedContextWriter(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+    }
+
+    /**
+     * Writes the factory of a service class, if any of it can be generated
+     *
+     * @param constructor - the constructor the framework will call, null if there is none
+     */
+    void writeFactory(TypeElement type, ExecutableElement constructor) {
+        if (!isReachable(type)) {
+            return;
+        }
+
+        List<String> dependencies = new ArrayList<>();
+        String newInstance = constructor != null && !constructor.getModifiers().contains(Modifier.PRIVATE)
+                ? newInstanceBody(type, constructor)
+                : null;
+        String inject = injectBody(type, dependencies);
+        if (newInstance == null && inject == null) {
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String factoryName = factoryName(type);
+        String qualifiedFactoryName = packageName.isEmpty() ? factoryName : packageName + "." + factoryName;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import framework.injection.Dependency;\n")
+                .append("import framework.injection.InjectionContext;\n\n")
+                .append("// Generated by ").append(ComponentIndexProcessor.class.getName()).append(", do not edit\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(factoryName).append(" {\n");
+        for (int i = 0; i < dependencies.size(); i++) {
+            source.append("    private static final Dependency D").append(i).append(" = ")
+                    .append(dependencies.get(i)).append(";\n");
+        }
+        source.append("\n    private ").append(factoryName).append("() {\n    }\n");
+        if (newInstance != null) {
+            source.append("\n    public static Object newInstance(Object[] dependencies) throws Exception {\n")
+                    .append(newInstance)
+                    .append("    }\n");
+            instantiators.put(binaryName(type), qualifiedFactoryName);
+        }
+        if (inject != null) {
+            source.append("\n    public static void inject(Object target, InjectionContext context) throws Exception {\n")
+                    .append("        ").append(typeLiteral(type.asType())).append(" instance = (")
+                    .append(typeLiteral(type.asType())).append(") target;\n")
+                    .append(inject)
+                    .append("    }\n");
+            injectors.put(binaryName(type), qualifiedFactoryName);
+        }
+        source.append("}\n");
+
+        write(qualifiedFactoryName, source.toString(), type);
+    }
+
+    /**
+     * Writes the context dispatching to the factories written so far, in the package of the first one
+     * and named after the hash of the services, so that every module gets a class of its own
+     *
+     * @return the qualified name of the context, null if no factory was written
+     */
+    @Nullable String writeContext() {
+        TreeSet<String> factories = new TreeSet<>(instantiators.values());
+        factories.addAll(injectors.values());
+        if (factories.isEmpty()) {
+            return null;
+        }
+        String firstFactory = factories.first();
+        String packageName = firstFactory.lastIndexOf('.') < 0 ? "" : firstFactory.substring(0, firstFactory.lastIndexOf('.'));
+        TreeSet<String> services = new TreeSet<>(instantiators.keySet());
+        services.addAll(injectors.keySet());
+        String className = GeneratedContext.SIMPLE_NAME_PREFIX + Integer.toHexString(String.join(",", services).hashCode());
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import framework.injection.GeneratedContext;\n")
+                .append("import framework.injection.InjectionContext;\n\n")
+                .append("import java.util.Set;\n\n")
+                .append("// Generated by ").append(ComponentIndexProcessor.class.getName()).append(", do not edit\n")
+                .append("public final class ").append(className).append(" implements GeneratedContext {\n")
+                .append("    private static final Set<String> INSTANTIABLE = Set.of(")
+                .append(stringLiterals(instantiators.keySet())).append(");\n")
+                .append("    private static final Set<String> INJECTABLE = Set.of(")
+                .append(stringLiterals(injectors.keySet())).append(");\n\n")
+                .append("    @Override\n")
+                .append("    public boolean hasInstantiator(Class<?> type) {\n")
+                .append("        return INSTANTIABLE.contains(type.getName());\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public Object newInstance(Class<?> type, Object[] dependencies) throws Exception {\n")
+                .append("        return switch (type.getName()) {\n");
+        instantiators.forEach((service, factory) -> source.append("            case ")
+                .append(stringLiteral(service)).append(" -> ").append(factory).append(".newInstance(dependencies);\n"));
+        source.append("            default -> throw new IllegalArgumentException(\"No generated constructor call for \" + type);\n")
+                .append("        };\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public boolean hasInjector(Class<?> type) {\n")
+                .append("        return INJECTABLE.contains(type.getName());\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public void inject(Class<?> type, Object instance, InjectionContext context) throws Exception {\n")
+                .append("        switch (type.getName()) {\n");
+        injectors.forEach((service, factory) -> source.append("            case ")
+                .append(stringLiteral(service)).append(" -> ").append(factory).append(".inject(instance, context);\n"));
+        source.append("            default -> throw new IllegalArgumentException(\"No generated injection for \" + type);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+
+        write(qualifiedName, source.toString());
+        return qualifiedName;
+    }
+
+    /**
+     * Lists the context in {@link GeneratedContext#LOCATION}, in front of the contexts listed by the
+     * previous compile that still exist
+     */
+    void writeContextList(String contextName) {
+        Set<String> contextNames = new LinkedHashSet<>();
+        contextNames.add(contextName);
+        try {
+            FileObject previous = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", GeneratedContext.LOCATION);
+            try (BufferedReader reader = new BufferedReader(previous.openReader(true))) {
+                reader.lines()
+                        .map(String::strip)
+                        .filter(name -> !name.isEmpty() && !name.startsWith("#"))
+                        .filter(name -> processingEnv.getElementUtils().getTypeElement(name) != null)
+                        .forEach(contextNames::add);
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            // first compile
+        } catch (IOException | IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Could not read the previous generated context list, writing a new one: " + e.getMessage());
+        }
+
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", GeneratedContext.LOCATION);
+            try (Writer writer = resource.openWriter()) {
+                writer.write("# Generated by " + ComponentIndexProcessor.class.getName() + ", do not edit\n");
+                for (String name : contextNames) {
+                    writer.write(name + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Could not list " + contextName + ", falling back to reflection: " + e.getMessage());
+        }
+    }
+
+    private String newInstanceBody(TypeElement type, ExecutableElement constructor) {
+        StringBuilder arguments = new StringBuilder();
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                arguments.append(", ");
+            }
+            arguments.append('(').append(castType(parameters.get(i).asType())).append(") dependencies[").append(i).append(']');
+        }
+        return "        return new " + typeLiteral(type.asType()) + "(" + arguments + ");\n";
+    }
+
+    /**
+     * @return null if some injected member can't be reached from generated code, the class then
+     * keeps its reflective injection plan. Also null if nothing is injected
+     */
+    private String injectBody(TypeElement type, List<String> dependencies) {
+        StringBuilder body = new StringBuilder();
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            boolean autowired = hasAnnotation(field, AUTOWIRED);
+            String valueKey = annotationValue(field, VALUE);
+            if (!autowired && valueKey == null) {
+                continue;
+            }
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)
+                    || modifiers.contains(Modifier.STATIC)) {
+                return null;
+            }
+
+            TypeMirror fieldType = field.asType();
+            if (autowired) {
+                int dependency = addDependency(dependencies, fieldType, field);
+                body.append("        instance.").append(field.getSimpleName()).append(" = (")
+                        .append(castType(fieldType)).append(") context.resolve(D").append(dependency).append(");\n");
+            }
+            if (valueKey != null) {
+                // generic targets like List<Duration> need the field's generic Type, left to reflection
+                if (fieldType.getKind() == TypeKind.DECLARED && !((DeclaredType) fieldType).getTypeArguments().isEmpty()) {
+                    return null;
+                }
+                String value = "value" + field.getSimpleName();
+                body.append("        Object ").append(value).append(" = context.resolveProperty(")
+                        .append(stringLiteral(valueKey)).append(", ").append(classLiteral(fieldType)).append(");\n");
+                if (fieldType.getKind().isPrimitive()) {
+                    // unset properties leave primitive fields at their default
+                    body.append("        if (").append(value).append(" != null) {\n    ");
+                }
+                body.append("        instance.").append(field.getSimpleName()).append(" = (")
+                        .append(castType(fieldType)).append(") ").append(value).append(";\n");
+                if (fieldType.getKind().isPrimitive()) {
+                    body.append("        }\n");
+                }
+            }
+        }
+
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (hasAnnotation(method, AUTOWIRED)) {
+                if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                    return null;
+                }
+                StringBuilder arguments = new StringBuilder();
+                for (VariableElement parameter : method.getParameters()) {
+                    int dependency = addDependency(dependencies, parameter.asType(), parameter);
+                    if (!arguments.isEmpty()) {
+                        arguments.append(", ");
+                    }
+                    arguments.append('(').append(castType(parameter.asType())).append(") context.resolve(D")
+                            .append(dependency).append(')');
+                }
+                body.append("        instance.").append(method.getSimpleName()).append('(').append(arguments).append(");\n");
+            } else if (hasAnnotation(method, EVENT_LISTENER)) {
+                if (method.getParameters().size() != 1) {
+                    return null;
+                }
+                TypeMirror parameterType = method.getParameters().getFirst().asType();
+                TypeMirror eventType = eventType(parameterType);
+                if (eventType == null) {
+                    return null;
+                }
+                // the listener binding needs the Method, looked up once when the instance is injected
+                body.append("        context.registerEventListener(instance, ").append(classLiteral(type.asType()))
+                        .append(".getDeclaredMethod(").append(stringLiteral(method.getSimpleName().toString()))
+                        .append(", ").append(classLiteral(parameterType)).append("), ")
+                        .append(classLiteral(eventType)).append(");\n");
+            }
+        }
+
+        return body.isEmpty() ? null : body.toString();
+    }
+
+    // element type for batch listeners taking List<EventType>, null for a raw List
+    private TypeMirror eventType(TypeMirror parameterType) {
+        if (!classLiteral(parameterType).equals("java.util.List.class")) {
+            return parameterType;
+        }
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) parameterType).getTypeArguments();
+        if (typeArguments.size() != 1 || typeArguments.getFirst().getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return typeArguments.getFirst();
+    }
+
+    private int addDependency(List<String> dependencies, TypeMirror type, Element injectionPoint) {
+        String kind = dependencyKind(type);
+        if (kind != null) {
+            // same as BeanDescriptor, every candidate of the element type and only providers keep their qualifier
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+            String qualifier = PROVIDER_KIND.equals(kind) ? annotationValue(injectionPoint, QUALIFIER) : null;
+            dependencies.add("new Dependency(" + classLiteral(elementType(typeArguments.getLast())) + ", "
+                    + (qualifier != null ? stringLiteral(qualifier) : "null") + ", false, Dependency.Kind." + kind + ")");
+            return dependencies.size() - 1;
+        }
+
+        String qualifier = annotationValue(injectionPoint, QUALIFIER);
+        String lazy = annotationValue(injectionPoint, LAZY);
+        boolean isLazy = hasAnnotation(injectionPoint, LAZY) && !"false".equals(lazy);
+        dependencies.add("new Dependency(" + classLiteral(type) + ", "
+                + (qualifier != null ? stringLiteral(qualifier) : "null") + ", " + isLazy + ")");
+        return dependencies.size() - 1;
+    }
+
+    // name of the Dependency.Kind for List<T>, Set<T>, Map<String, T> and Provider<T>, null for anything else
+    private String dependencyKind(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        if (typeArguments.isEmpty() || elementType(typeArguments.getLast()) == null) {
+            return null;
+        }
+        return switch (typeLiteral(type)) {
+            case "java.util.List" -> "LIST";
+            case "java.util.Set" -> "SET";
+            case "java.util.Map" -> typeLiteral(typeArguments.getFirst()).equals("java.lang.String") ? "MAP" : null;
+            case PROVIDER -> PROVIDER_KIND;
+            default -> null;
+        };
+    }
+
+    // the bound of a wildcard, null if it isn't a class, interface or type variable
+    private TypeMirror elementType(TypeMirror typeArgument) {
+        if (typeArgument instanceof WildcardType wildcardType) {
+            return wildcardType.getExtendsBound() != null
+                    ? elementType(wildcardType.getExtendsBound())
+                    : processingEnv.getElementUtils().getTypeElement("java.lang.Object").asType();
+        }
+        return typeArgument.getKind() == TypeKind.DECLARED || typeArgument.getKind() == TypeKind.TYPEVAR
+                ? typeArgument
+                : null;
+    }
+
+    // not private itself nor nested in anything private, and not an inner class needing an outer instance
+    private boolean isReachable(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement typeElement) {
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (typeElement.getNestingKind() == NestingKind.MEMBER && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            current = typeElement.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // value() of the annotation as a string, "" if it's left at its default, null if the annotation is missing
+    private String annotationValue(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("value")) {
+                    return String.valueOf(value.getValue().getValue());
+                }
+            }
+            return "";
+        }
+        return null;
+    }
+
+    private String factoryName(TypeElement type) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String qualifiedName = type.getQualifiedName().toString();
+        String nestedName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+        return nestedName.replace('.', '_') + FACTORY_SUFFIX;
+    }
+
+    // erased, so generic classes are created and cast as raw types
+    private String typeLiteral(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String classLiteral(TypeMirror type) {
+        return typeLiteral(type) + ".class";
+    }
+
+    // primitives are cast to their wrapper and unboxed on assignment
+    private String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return typeLiteral(type);
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private String stringLiteral(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private String stringLiterals(Collection<String> values) {
+        StringJoiner joiner = new StringJoiner(", ");
+        values.forEach(value -> joiner.add(stringLiteral(value)));
+        return joiner.toString();
+    }
+
+    private void write(String qualifiedName, String source, Element... originatingElements) {
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Could not write " + qualifiedName + ", falling back to reflection: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package framework.injection;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reference to an instance in the app context, resolved once while building an {@link InjectionPlan}.
+ *
+ * @param type      - declared type of the field or parameter, its element type if it's a collection or provider
+ * @param qualifier - value of its @Qualifier, null if it's resolved by type only
+ * @param lazy      - true if it's marked @Lazy, i.e. resolved on first use instead of when it's injected
+ * @param kind      - whether one instance, every candidate or a provider is injected
+ */
+public record Dependency(Class<?> type, @Nullable String qualifier, boolean lazy, Kind kind) {
+
+    public enum Kind {
+        INSTANCE,
+        /**
+         * {@code List<T>} of every candidate
+         */
+        LIST,
+        /**
+         * {@code Set<T>} of every candidate
+         */
+        SET,
+        /**
+         * {@code Map<String, T>} of every candidate by its name
+         */
+        MAP,
+        /**
+         * {@code framework.context.Provider<T>} looking the candidates up when it's called
+         */
+        PROVIDER
+    }
+
+    public Dependency(Class<?> type, @Nullable String qualifier, boolean lazy) {
+        this(type, qualifier, lazy, Kind.INSTANCE);
+    }
+
+    public Dependency(Class<?> type, @Nullable String qualifier) {
+        this(type, qualifier, false, Kind.INSTANCE);
+    }
+}
@@ -0,0 +1,103 @@
+package framework.injection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.System.Logger.Level;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Constructor calls and injection written out as plain Java by the framework's annotation processor,
+ * so creating and injecting a service doesn't go through Constructor.newInstance, Field.set or
+ * Method.invoke. The processor generates a context class into every module it runs on, which
+ * dispatches to a generated factory class next to every service class. The context is named after
+ * the module's services, so modules sharing a package don't clash. Each module lists its context in
+ * {@link #LOCATION}, {@link #load} merges them.
+ * <p>
+ * Only what the generated code can reach is generated: classes with a private constructor,
+ * a private or final injected field or a generic @Value field are left to reflection and {@link InjectionPlan}.
+ */
+public interface GeneratedContext {
+    String LOCATION = "META-INF/framework/generated-contexts";
+    String SIMPLE_NAME_PREFIX = "GeneratedApplicationContext_";
+
+    boolean hasInstantiator(Class<?> type);
+
+    /**
+     * @param dependencies - constructor arguments in parameter order
+     */
+    Object newInstance(Class<?> type, Object[] dependencies) throws Exception;
+
+    boolean hasInjector(Class<?> type);
+
+    /**
+     * Field, setter and event listener injection in the same order an {@link InjectionPlan} would do it
+     */
+    void inject(Class<?> type, Object instance, InjectionContext context) throws Exception;
+
+    /**
+     * @return the generated contexts of every module on the classpath compiled with the annotation
+     * processor as one, empty if there is none
+     */
+    static Optional<GeneratedContext> load(ClassLoader classLoader) {
+        // an interface can't keep a private logger
+        System.Logger logger = System.getLogger(GeneratedContext.class.getName());
+        List<String> classNames;
+        try {
+            classNames = classNames(classLoader);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ignoring the generated contexts since " + LOCATION + " can't be read", e);
+            return Optional.empty();
+        }
+
+        List<GeneratedContext> contexts = new ArrayList<>();
+        for (String className : classNames) {
+            try {
+                Class<?> generated = Class.forName(className, true, classLoader);
+                contexts.add((GeneratedContext) generated.getConstructor().newInstance());
+            } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+                logger.log(Level.WARNING, "Ignoring " + className + " since it can't be loaded, the services of "
+                        + "its module are created through reflection", e);
+            }
+        }
+        return switch (contexts.size()) {
+            case 0 -> Optional.empty();
+            case 1 -> Optional.of(contexts.getFirst());
+            default -> Optional.of(new GeneratedContexts(contexts));
+        };
+    }
+
+    /**
+     * @return the class names listed in every {@link #LOCATION} on the classpath, in classpath order
+     */
+    static List<String> classNames(ClassLoader classLoader) throws IOException {
+        Set<String> classNames = new LinkedHashSet<>();
+        Enumeration<URL> resources = classLoader.getResources(LOCATION);
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String className = line.strip();
+                    if (className.isEmpty() || className.startsWith("#")) {
+                        continue;
+                    }
+                    if (!classNames.add(className)) {
+                        System.getLogger(GeneratedContext.class.getName()).log(Level.WARNING, className
+                                + " is generated by more than one module, only the first one on the classpath is used"
+                                + " and the services of the others are created through reflection");
+                    }
+                }
+            }
+        }
+        return List.copyOf(classNames);
+    }
+}
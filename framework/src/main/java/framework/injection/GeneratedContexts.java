@@ -0,0 +1,55 @@
+package framework.injection;
+
+import java.util.List;
+
+/**
+ * The generated contexts of several modules, each type is handled by the first one that has code for it
+ */
+final class GeneratedContexts implements GeneratedContext {
+    private final List<GeneratedContext> contexts;
+
+    GeneratedContexts(List<GeneratedContext> contexts) {
+        this.contexts = List.copyOf(contexts);
+    }
+
+    @Override
+    public boolean hasInstantiator(Class<?> type) {
+        for (GeneratedContext context : contexts) {
+            if (context.hasInstantiator(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object newInstance(Class<?> type, Object[] dependencies) throws Exception {
+        for (GeneratedContext context : contexts) {
+            if (context.hasInstantiator(type)) {
+                return context.newInstance(type, dependencies);
+            }
+        }
+        throw new IllegalArgumentException("No generated constructor call for " + type);
+    }
+
+    @Override
+    public boolean hasInjector(Class<?> type) {
+        for (GeneratedContext context : contexts) {
+            if (context.hasInjector(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void inject(Class<?> type, Object instance, InjectionContext context) throws Exception {
+        for (GeneratedContext generated : contexts) {
+            if (generated.hasInjector(type)) {
+                generated.inject(type, instance, context);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No generated injection for " + type);
+    }
+}
@@ -0,0 +1,27 @@
+package framework.injection;
+
+import framework.exceptions.InstanceCreationWrapperException;
+import framework.startup.StartupTimings;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+/**
+ * What an {@link InjectionPlan} needs from the app context while it's executed.
+ */
+public interface InjectionContext {
+    Object resolve(Dependency dependency) throws InstanceCreationWrapperException;
+
+    /**
+     * @return the property converted to the type, null if it isn't set
+     */
+    Object resolveProperty(String key, Type type) throws InstanceCreationWrapperException;
+
+    void registerEventListener(Object instance, Method method, Class<?> eventType)
+            throws InstanceCreationWrapperException;
+
+    /**
+     * @return timings of the context's startup, only JFR events once it's started
+     */
+    StartupTimings getStartupTimings();
+}
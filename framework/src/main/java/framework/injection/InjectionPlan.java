@@ -0,0 +1,147 @@
+package framework.injection;
+
+import framework.exceptions.InstanceCreationWrapperException;
+import framework.startup.StartupTimings;
+import framework.startup.StartupTimings.BeanTimer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Field injection, setter injection and event listener registration for one service class,
+ * worked out once per class. Annotations are only read while the plan is built; executing it is a
+ * dependency lookup plus a {@link MethodHandle} call per injection point.
+ */
+public class InjectionPlan {
+    private static final MethodType FIELD_SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> serviceClass;
+    private final Step[] steps;
+
+    private InjectionPlan(Class<?> serviceClass, Step[] steps) {
+        this.serviceClass = serviceClass;
+        this.steps = steps;
+    }
+
+    public static Builder builder(Class<?> serviceClass) {
+        return new Builder(serviceClass);
+    }
+
+    public Class<?> getServiceClass() {
+        return serviceClass;
+    }
+
+    public boolean isEmpty() {
+        return steps.length == 0;
+    }
+
+    /**
+     * @param instance - instance of the plan's service class
+     * @param context  - app context the dependencies are resolved from
+     */
+    public void execute(Object instance, InjectionContext context) throws InstanceCreationWrapperException {
+        if (steps.length == 0) {
+            return;
+        }
+        try (BeanTimer ignored = context.getStartupTimings().startBean(serviceClass, StartupTimings.Step.INJECT)) {
+            for (Step step : steps) {
+                try {
+                    step.apply(instance, context);
+                } catch (InstanceCreationWrapperException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new InstanceCreationWrapperException(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void apply(Object instance, InjectionContext context) throws Throwable;
+    }
+
+    public static class Builder {
+        private final Class<?> serviceClass;
+        private final List<Step> steps = new ArrayList<>();
+
+        private Builder(Class<?> serviceClass) {
+            this.serviceClass = serviceClass;
+        }
+
+        public Builder injectField(Field field, Dependency dependency) throws IllegalAccessException {
+            MethodHandle setter = fieldSetter(field);
+            steps.add((instance, context) -> {
+                setter.invokeExact(instance, context.resolve(dependency));
+            });
+            return this;
+        }
+
+        public Builder injectProperty(Field field, String key) throws IllegalAccessException {
+            MethodHandle setter = fieldSetter(field);
+            Type fieldType = field.getGenericType();
+            boolean primitive = field.getType().isPrimitive();
+            steps.add((instance, context) -> {
+                Object value = context.resolveProperty(key, fieldType);
+                // unset properties leave primitive fields at their default
+                if (value != null || !primitive) {
+                    setter.invokeExact(instance, value);
+                }
+            });
+            return this;
+        }
+
+        public Builder injectSetter(Method method, Dependency[] dependencies) throws IllegalAccessException {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method)
+                    .asSpreader(Object[].class, dependencies.length);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, Object[].class));
+
+            steps.add((instance, context) -> {
+                Object[] arguments = new Object[dependencies.length];
+                for (int i = 0; i < dependencies.length; i++) {
+                    arguments[i] = context.resolve(dependencies[i]);
+                }
+                setter.invokeExact(instance, arguments);
+            });
+            return this;
+        }
+
+        public Builder registerEventListener(Method method, Class<?> eventType) {
+            steps.add((instance, context) -> context.registerEventListener(instance, method, eventType));
+            return this;
+        }
+
+        /**
+         * Injection written out by the annotation processor, replaces every other step of the class
+         */
+        public Builder injectGenerated(GeneratedContext generatedContext) {
+            steps.add((instance, context) -> generatedContext.inject(serviceClass, instance, context));
+            return this;
+        }
+
+        public InjectionPlan build() {
+            return new InjectionPlan(serviceClass, steps.toArray(Step[]::new));
+        }
+
+        // a static field's setter takes no instance, it's dropped like Field.set ignores it
+        private static MethodHandle fieldSetter(Field field) throws IllegalAccessException {
+            field.setAccessible(true);
+            MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            return setter.asType(FIELD_SETTER_TYPE);
+        }
+    }
+}
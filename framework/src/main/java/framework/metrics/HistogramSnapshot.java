@@ -0,0 +1,12 @@
+package framework.metrics;
+
+/**
+ * Point in time view of a {@link LatencyHistogram}, all values in nanoseconds. Percentiles are the
+ * upper bound of the bucket they fall into, so at most ~6% above the recorded value.
+ *
+ * @param count - recorded values
+ * @param mean  - exact mean
+ * @param max   - exact maximum
+ */
+public record HistogramSnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+}
@@ -0,0 +1,119 @@
+package framework.metrics;
+
+import javax.management.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every metric of a {@link MetricsRegistry} as a read only attribute: a counter under its name,
+ * a histogram as `name.count`, `name.p50` etc. in nanoseconds. Characters of labeled names that JMX
+ * clients don't handle are replaced by `_`, e.g. {@code scheduled.job.runs{job="a.B#run"}} becomes
+ * `scheduled.job.runs_job_a.B_run`. Metrics registered later show up the next time a client reads
+ * the MBean info. The `dump` operation returns {@link MetricsRegistry#dump()}.
+ */
+class MetricsMBean implements DynamicMBean {
+    private static final String[] HISTOGRAM_ATTRIBUTES = {"count", "mean", "p50", "p90", "p99", "p999", "max"};
+
+    private final MetricsRegistry registry;
+
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Counter counter = registry.findCounter(metricName(registry.getCounterNames(), attribute));
+        if (counter != null) {
+            return counter.count();
+        }
+
+        int separator = attribute.lastIndexOf('.');
+        LatencyHistogram histogram = separator < 0 ? null : registry.findHistogram(
+                metricName(registry.getHistogramNames(), attribute.substring(0, separator)));
+        if (histogram != null) {
+            HistogramSnapshot snapshot = histogram.snapshot();
+            Object value = switch (attribute.substring(separator + 1)) {
+                case "count" -> snapshot.count();
+                case "mean" -> snapshot.mean();
+                case "p50" -> snapshot.p50();
+                case "p90" -> snapshot.p90();
+                case "p99" -> snapshot.p99();
+                case "p999" -> snapshot.p999();
+                case "max" -> snapshot.max();
+                default -> null;
+            };
+            if (value != null) {
+                return value;
+            }
+        }
+        throw new AttributeNotFoundException("No metric " + attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException ignored) {
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if ("dump".equals(actionName)) {
+            return registry.dump();
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : registry.getCounts().keySet()) {
+            attributes.add(new MBeanAttributeInfo(attributeName(name), "long", "Counter", true, false, false));
+        }
+        for (Map.Entry<String, HistogramSnapshot> histogram : registry.getHistograms().entrySet()) {
+            for (String attribute : HISTOGRAM_ATTRIBUTES) {
+                String type = "mean".equals(attribute) ? "double" : "long";
+                attributes.add(new MBeanAttributeInfo(attributeName(histogram.getKey()) + "." + attribute, type,
+                        "Latency histogram, nanoseconds", true, false, false));
+            }
+        }
+        MBeanOperationInfo dump = new MBeanOperationInfo("dump", "All metrics as text",
+                new MBeanParameterInfo[0], "java.lang.String", MBeanOperationInfo.INFO);
+
+        return new MBeanInfo(MetricsMBean.class.getName(), "Framework metrics",
+                attributes.toArray(MBeanAttributeInfo[]::new), null,
+                new MBeanOperationInfo[]{dump}, null);
+    }
+
+    private static String attributeName(String metricName) {
+        String name = metricName.replaceAll("[^A-Za-z0-9_.]+", "_");
+        return name.endsWith("_") ? name.substring(0, name.length() - 1) : name;
+    }
+
+    // the metric an attribute name was derived from, the attribute name itself if there is none
+    private static String metricName(Collection<String> metricNames, String attributeName) {
+        for (String metricName : metricNames) {
+            if (attributeName(metricName).equals(attributeName)) {
+                return metricName;
+            }
+        }
+        return attributeName;
+    }
+}
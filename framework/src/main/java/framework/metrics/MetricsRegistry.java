@@ -0,0 +1,125 @@
+package framework.metrics;
+
+import javax.annotation.Nullable;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.System.Logger.Level;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counters and latency histograms of the framework, e.g. published events, listener latency and
+ * failures, scheduled job durations and missed firings.
+ * <p>
+ * Metrics are looked up by name once, when whatever records into them is set up, and kept in a field;
+ * recording is then a call on the {@link Counter} or {@link LatencyHistogram} without lookup or
+ * allocation. The registry can be read as text via {@link #dump()} or over JMX as `framework:type=Metrics`.
+ */
+public class MetricsRegistry {
+    public static final String OBJECT_NAME = "framework:type=Metrics";
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final System.Logger LOGGER = System.getLogger(MetricsRegistry.class.getName());
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private boolean registered;
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * @param label      - name of the label, e.g. listener
+     * @param labelValue - e.g. the listener's class and method
+     */
+    public Counter counter(String name, String label, String labelValue) {
+        return counter(name(name, label, labelValue));
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public LatencyHistogram histogram(String name, String label, String labelValue) {
+        return histogram(name(name, label, labelValue));
+    }
+
+    @Nullable Counter findCounter(String name) {
+        return counters.get(name);
+    }
+
+    @Nullable LatencyHistogram findHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    Set<String> getCounterNames() {
+        return counters.keySet();
+    }
+
+    Set<String> getHistogramNames() {
+        return histograms.keySet();
+    }
+
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        counters.forEach((name, counter) -> counts.put(name, counter.count()));
+        return counts;
+    }
+
+    public Map<String, HistogramSnapshot> getHistograms() {
+        Map<String, HistogramSnapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * @return one line per metric sorted by name, histogram values in milliseconds, e.g.
+     * {@code events.listener.latency{listener="a.B#on"} count=3 mean=0.012 p50=0.010 p90=0.015 p99=0.015 p999=0.015 max=0.015}
+     */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        getCounts().forEach((name, count) -> sb.append(name).append(' ').append(count).append('\n'));
+        getHistograms().forEach((name, snapshot) -> sb.append(String.format(
+                "%s count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p999=%.3f max=%.3f%n",
+                name, snapshot.count(), snapshot.mean() / NANOS_PER_MILLI, millis(snapshot.p50()),
+                millis(snapshot.p90()), millis(snapshot.p99()), millis(snapshot.p999()), millis(snapshot.max()))));
+        return sb.toString();
+    }
+
+    /**
+     * Registers the registry with the platform MBean server, does nothing if it already is. If another
+     * registry has the name, e.g. the one of a framework loaded by another class loader, this one
+     * isn't available over JMX
+     */
+    public synchronized void registerMBean() throws JMException {
+        if (registered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(this), new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.log(Level.WARNING, "Metrics aren't registered over JMX since another registry "
+                    + "already is registered as " + OBJECT_NAME);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    private static String name(String name, String label, String labelValue) {
+        return name + "{" + label + "=\"" + labelValue + "\"}";
+    }
+}
@@ -0,0 +1,240 @@
+package framework.scheduled;
+
+import framework.exceptions.InvalidCronStringFormat;
+
+import javax.annotation.Nullable;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Six field cron expression: {@code second minute hour day-of-month month day-of-week}.
+ * <p>
+ * Every field accepts {@code *}, single values, ranges {@code a-b}, steps {@code * /n}, {@code a/n},
+ * {@code a-b/n} and comma separated lists of those. Months and days of week also accept three letter
+ * names (JAN-DEC, SUN-SAT), day of week 0 and 7 both mean Sunday, and {@code ?} is accepted as
+ * {@code *} in the two day fields. Like classic cron, when both day fields are restricted a day
+ * matches if either of them does.
+ * <p>
+ * Fields are compiled into bit sets once, so {@link #nextFireTime(ZonedDateTime)} only does bit
+ * arithmetic and never re-parses anything.
+ */
+public class CronExpression {
+    private static final String[] MONTH_NAMES = {
+            "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    // far enough to find e.g. the next February 29th that is also a Monday
+    private static final int MAX_YEARS_TO_SEARCH = 28;
+
+    private final String expression;
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean daysOfMonthRestricted;
+    private final boolean daysOfWeekRestricted;
+
+    private CronExpression(String expression, long seconds, long minutes, long hours, long daysOfMonth,
+                           long months, long daysOfWeek, boolean daysOfMonthRestricted,
+                           boolean daysOfWeekRestricted) {
+        this.expression = expression;
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.daysOfMonthRestricted = daysOfMonthRestricted;
+        this.daysOfWeekRestricted = daysOfWeekRestricted;
+    }
+
+    public static CronExpression parse(String expression) throws InvalidCronStringFormat {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 6) {
+            throw invalid(expression, "expected 6 fields (second minute hour day-of-month month day-of-week)");
+        }
+
+        long daysOfWeek = parseField(expression, fields[5], 0, 7, DAY_NAMES, 0);
+        // 7 is Sunday as well
+        if ((daysOfWeek & (1L << 7)) != 0) {
+            daysOfWeek = (daysOfWeek | 1L) & ~(1L << 7);
+        }
+
+        return new CronExpression(expression,
+                parseField(expression, fields[0], 0, 59, null, 0),
+                parseField(expression, fields[1], 0, 59, null, 0),
+                parseField(expression, fields[2], 0, 23, null, 0),
+                parseField(expression, fields[3], 1, 31, null, 0),
+                parseField(expression, fields[4], 1, 12, MONTH_NAMES, 1),
+                daysOfWeek,
+                isRestricted(fields[3]),
+                isRestricted(fields[5]));
+    }
+
+    /**
+     * @param after - point in time to search from, exclusive
+     * @return the first time strictly after {@code after} matching the expression, in after's zone,
+     * or null if there is none in the foreseeable future (e.g. February 30th)
+     */
+    public @Nullable ZonedDateTime nextFireTime(ZonedDateTime after) {
+        ZoneId zone = after.getZone();
+        LocalDateTime candidate = after.toLocalDateTime().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        int lastYear = candidate.getYear() + MAX_YEARS_TO_SEARCH;
+
+        while (candidate.getYear() <= lastYear) {
+            if (!isSet(months, candidate.getMonthValue())) {
+                candidate = candidate.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+                continue;
+            }
+            if (!matchesDay(candidate.toLocalDate())) {
+                candidate = candidate.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+                continue;
+            }
+
+            int hour = nextSetBit(hours, candidate.getHour());
+            if (hour < 0) {
+                candidate = candidate.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+                continue;
+            }
+            if (hour != candidate.getHour()) {
+                candidate = candidate.withHour(hour).withMinute(0).withSecond(0);
+            }
+
+            int minute = nextSetBit(minutes, candidate.getMinute());
+            if (minute < 0) {
+                candidate = candidate.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+                continue;
+            }
+            if (minute != candidate.getMinute()) {
+                candidate = candidate.withMinute(minute).withSecond(0);
+            }
+
+            int second = nextSetBit(seconds, candidate.getSecond());
+            if (second < 0) {
+                candidate = candidate.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+                continue;
+            }
+            candidate = candidate.withSecond(second);
+
+            // local times skipped by a DST gap are moved forward by the zone rules,
+            // times repeated by an overlap fire once, at the earlier offset
+            ZonedDateTime next = ZonedDateTime.ofLocal(candidate, zone, null);
+            if (next.isAfter(after)) {
+                return next;
+            }
+            candidate = candidate.plusSeconds(1);
+        }
+        return null;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private boolean matchesDay(LocalDate date) {
+        boolean dayOfMonthMatches = isSet(daysOfMonth, date.getDayOfMonth());
+        boolean dayOfWeekMatches = isSet(daysOfWeek, date.getDayOfWeek().getValue() % 7);
+
+        if (daysOfMonthRestricted && daysOfWeekRestricted) {
+            return dayOfMonthMatches || dayOfWeekMatches;
+        }
+        return dayOfMonthMatches && dayOfWeekMatches;
+    }
+
+    private static boolean isSet(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    // index of the first bit >= from, -1 if there is none
+    private static int nextSetBit(long bits, int from) {
+        long remaining = bits & (-1L << from);
+        return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static boolean isRestricted(String field) {
+        return !field.equals("*") && !field.equals("?");
+    }
+
+    private static long parseField(String expression, String field, int min, int max,
+                                   @Nullable String[] names, int firstNameValue) throws InvalidCronStringFormat {
+        long bits = 0L;
+
+        for (String part : field.split(",")) {
+            if (part.isEmpty()) {
+                throw invalid(expression, "empty list element in '" + field + "'");
+            }
+
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(expression, part.substring(slash + 1), 1, max);
+                part = part.substring(0, slash);
+            }
+
+            int start;
+            int end;
+            if (part.equals("*") || part.equals("?")) {
+                start = min;
+                end = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash >= 0) {
+                    start = parseValue(expression, part.substring(0, dash), min, max, names, firstNameValue);
+                    end = parseValue(expression, part.substring(dash + 1), min, max, names, firstNameValue);
+                } else {
+                    start = parseValue(expression, part, min, max, names, firstNameValue);
+                    // "5/15" means from 5 to the end of the range every 15
+                    end = slash >= 0 ? max : start;
+                }
+            }
+
+            if (start > end) {
+                throw invalid(expression, "range '" + part + "' ends before it starts");
+            }
+            for (int value = start; value <= end; value += step) {
+                bits |= 1L << value;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseValue(String expression, String value, int min, int max,
+                                  @Nullable String[] names, int firstNameValue) throws InvalidCronStringFormat {
+        if (names != null) {
+            String upperCase = value.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(upperCase)) {
+                    return i + firstNameValue;
+                }
+            }
+        }
+        return parseNumber(expression, value, min, max);
+    }
+
+    private static int parseNumber(String expression, String value, int min, int max) throws InvalidCronStringFormat {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min || number > max) {
+                throw invalid(expression, "value " + number + " is outside of " + min + "-" + max);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw invalid(expression, "'" + value + "' is not a number");
+        }
+    }
+
+    private static InvalidCronStringFormat invalid(String expression, String reason) {
+        return new InvalidCronStringFormat(String.format("""
+                Error Message:
+                    Invalid cron expression => %s
+                    %s
+                """, expression, reason));
+    }
+}
@@ -0,0 +1,41 @@
+package framework.scheduled;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default backend, a {@link ScheduledExecutorService} with `scheduling.pool.size` threads.
+ */
+public class ExecutorTaskScheduler implements TaskScheduler {
+    private final ScheduledThreadPoolExecutor scheduledExecutorService;
+
+    public ExecutorTaskScheduler(int poolSize) {
+        scheduledExecutorService = new ScheduledThreadPoolExecutor(poolSize);
+        // a cron firing hours away would otherwise keep the JVM alive after shutdown
+        scheduledExecutorService.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        try {
+            scheduledExecutorService.schedule(task, delay, unit);
+        } catch (RejectedExecutionException e) {
+            // a run that finished after shutdown scheduling its next firing
+            if (!scheduledExecutorService.isShutdown()) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        scheduledExecutorService.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return scheduledExecutorService.awaitTermination(timeout, unit);
+    }
+}
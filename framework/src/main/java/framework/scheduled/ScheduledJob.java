@@ -0,0 +1,262 @@
+package framework.scheduled;
+
+import framework.annotations.Scheduled.Overlap;
+import framework.metrics.Counter;
+import framework.metrics.LatencyHistogram;
+import framework.metrics.MetricsRegistry;
+
+import javax.annotation.Nullable;
+import java.lang.System.Logger.Level;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One @Scheduled method. Every firing is scheduled as a one-shot task on the {@link TaskScheduler}:
+ * fixed rate and cron jobs schedule their next firing before running, so a slow run doesn't push
+ * later ones back and the overlap policy decides what happens to a firing that finds the previous
+ * run still going; fixed delay jobs schedule the next firing once the run is done.
+ * <p>
+ * A run that throws is counted and logged, the job keeps its schedule.
+ * <p>
+ * Runs, failures, skipped runs, missed firings and run durations are recorded in the
+ * {@link MetricsRegistry} as `scheduled.job.*`, labeled with the job's name.
+ */
+public class ScheduledJob {
+    private static final System.Logger LOGGER = System.getLogger(ScheduledJob.class.getName());
+    private static final MethodType JOB_TYPE = MethodType.methodType(void.class);
+
+    private final String name;
+    private final MethodHandle handle;
+    private final TaskScheduler taskScheduler;
+    private final Overlap overlap;
+    private final boolean virtualThread;
+
+    // exactly one of the three is set
+    private final long periodNanos;
+    private final long delayNanos;
+    private final @Nullable CronExpression cronExpression;
+    private final @Nullable ZoneId zone;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger queued = new AtomicInteger();
+    // runs on their own virtual thread, which the scheduler's termination doesn't cover
+    private final Set<Thread> virtualThreadRuns = ConcurrentHashMap.newKeySet();
+    private final Counter runs;
+    private final Counter failures;
+    private final Counter skipped;
+    private final Counter missed;
+    private final LatencyHistogram duration;
+
+    private volatile boolean cancelled;
+    // when the current fixed rate firing was due
+    private long nextFireNanos;
+    private ZonedDateTime nextFireTime;
+
+    private ScheduledJob(Object instance, Method method, TaskScheduler taskScheduler, Overlap overlap,
+                         boolean virtualThread, long periodNanos, long delayNanos,
+                         @Nullable CronExpression cronExpression, @Nullable ZoneId zone)
+            throws IllegalAccessException {
+        method.setAccessible(true);
+        this.name = method.getDeclaringClass().getName() + "#" + method.getName();
+        this.handle = MethodHandles.lookup().unreflect(method).bindTo(instance).asType(JOB_TYPE);
+        this.taskScheduler = taskScheduler;
+        this.overlap = overlap;
+        this.virtualThread = virtualThread;
+        this.periodNanos = periodNanos;
+        this.delayNanos = delayNanos;
+        this.cronExpression = cronExpression;
+        this.zone = zone;
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.runs = metrics.counter("scheduled.job.runs", "job", name);
+        this.failures = metrics.counter("scheduled.job.failures", "job", name);
+        this.skipped = metrics.counter("scheduled.job.skipped", "job", name);
+        this.missed = metrics.counter("scheduled.job.missed", "job", name);
+        this.duration = metrics.histogram("scheduled.job.duration", "job", name);
+    }
+
+    public static ScheduledJob fixedRate(Object instance, Method method, TaskScheduler taskScheduler,
+                                         Overlap overlap, boolean virtualThread, long periodMillis)
+            throws IllegalAccessException {
+        return new ScheduledJob(instance, method, taskScheduler, overlap, virtualThread,
+                TimeUnit.MILLISECONDS.toNanos(periodMillis), -1L, null, null);
+    }
+
+    public static ScheduledJob fixedDelay(Object instance, Method method, TaskScheduler taskScheduler,
+                                          boolean virtualThread, long delayMillis)
+            throws IllegalAccessException {
+        return new ScheduledJob(instance, method, taskScheduler, Overlap.QUEUE, virtualThread,
+                -1L, TimeUnit.MILLISECONDS.toNanos(delayMillis), null, null);
+    }
+
+    public static ScheduledJob cron(Object instance, Method method, TaskScheduler taskScheduler,
+                                    Overlap overlap, boolean virtualThread,
+                                    CronExpression cronExpression, ZoneId zone)
+            throws IllegalAccessException {
+        return new ScheduledJob(instance, method, taskScheduler, overlap, virtualThread,
+                -1L, -1L, cronExpression, zone);
+    }
+
+    /**
+     * @param initialDelayMillis - delay of the first firing, ignored for cron jobs
+     */
+    public void start(long initialDelayMillis) {
+        if (cronExpression != null) {
+            nextFireTime = ZonedDateTime.now(zone);
+            scheduleNextCronFiring();
+            return;
+        }
+
+        long initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(initialDelayMillis, 0L));
+        nextFireNanos = System.nanoTime() + initialDelayNanos;
+        taskScheduler.schedule(this::fire, initialDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @param deadlineNanos - System.nanoTime() to stop waiting at
+     * @return false if runs on virtual threads were still going at the deadline
+     */
+    public boolean awaitVirtualThreadRuns(long deadlineNanos) throws InterruptedException {
+        for (Thread run : virtualThreadRuns) {
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                break;
+            }
+            run.join(Duration.ofNanos(remainingNanos));
+        }
+        return virtualThreadRuns.isEmpty();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ScheduledJobStats getStats() {
+        return new ScheduledJobStats(name, runs.count(), failures.count(), skipped.count(), missed.count());
+    }
+
+    private void fire() {
+        if (cancelled) {
+            return;
+        }
+
+        if (delayNanos >= 0) {
+            execute(() -> {
+                runOnce();
+                if (!cancelled) {
+                    taskScheduler.schedule(this::fire, delayNanos, TimeUnit.NANOSECONDS);
+                }
+            });
+            return;
+        }
+
+        if (cronExpression != null) {
+            scheduleNextCronFiring();
+        } else {
+            scheduleNextFixedRateFiring();
+        }
+
+        switch (overlap) {
+            case CONCURRENT -> execute(this::runOnce);
+            case SKIP -> {
+                if (running.compareAndSet(false, true)) {
+                    execute(() -> {
+                        try {
+                            runOnce();
+                        } finally {
+                            running.set(false);
+                        }
+                    });
+                } else {
+                    skipped.increment();
+                }
+            }
+            case QUEUE -> {
+                // whoever takes the count from 0 runs until nothing is queued, later firings only count up
+                if (queued.getAndIncrement() == 0) {
+                    execute(() -> {
+                        do {
+                            runOnce();
+                        } while (queued.decrementAndGet() > 0);
+                    });
+                }
+            }
+        }
+    }
+
+    private void scheduleNextFixedRateFiring() {
+        long now = System.nanoTime();
+        nextFireNanos += periodNanos;
+        // fire times the scheduler couldn't keep up with are dropped instead of fired in a burst
+        if (nextFireNanos < now) {
+            long behind = (now - nextFireNanos) / periodNanos + 1;
+            missed.add(behind);
+            nextFireNanos += behind * periodNanos;
+        }
+        taskScheduler.schedule(this::fire, nextFireNanos - now, TimeUnit.NANOSECONDS);
+    }
+
+    private void scheduleNextCronFiring() {
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        ZonedDateTime next = cronExpression.nextFireTime(nextFireTime);
+        // like fixed rate, fire times that already passed are dropped instead of fired in a burst
+        long behind = 0;
+        while (next != null && !next.isAfter(now)) {
+            behind++;
+            next = cronExpression.nextFireTime(next);
+        }
+        missed.add(behind);
+        if (next == null) {
+            LOGGER.log(Level.WARNING, "Cron expression `" + cronExpression + "` of " + name
+                    + " has no upcoming fire time, method won't be scheduled again");
+            return;
+        }
+        nextFireTime = next;
+        // rounded up, firing even a little early would make nextFireTime(now) return the same time again
+        long delayMillis = Math.ceilDiv(Duration.between(now, next).toNanos(), 1_000_000L);
+        taskScheduler.schedule(this::fire, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void execute(Runnable run) {
+        if (virtualThread) {
+            Thread thread = Thread.ofVirtual().name("scheduled-" + name).unstarted(() -> {
+                try {
+                    run.run();
+                } finally {
+                    virtualThreadRuns.remove(Thread.currentThread());
+                }
+            });
+            virtualThreadRuns.add(thread);
+            thread.start();
+        } else {
+            run.run();
+        }
+    }
+
+    private void runOnce() {
+        long start = System.nanoTime();
+        try {
+            handle.invokeExact();
+        } catch (Throwable e) {
+            failures.increment();
+            LOGGER.log(Level.ERROR, "Scheduled method " + name + " failed", e);
+        } finally {
+            duration.record(System.nanoTime() - start);
+            runs.increment();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package framework.scheduled;
+
+/**
+ * Counters of a single @Scheduled method since the context started.
+ *
+ * @param job      - declaring class and method
+ * @param runs     - finished runs, failed ones included
+ * @param failures - runs that threw an exception
+ * @param skipped  - runs dropped because of Overlap.SKIP
+ * @param missed   - fire times that passed while the scheduler was behind
+ */
+public record ScheduledJobStats(String job, long runs, long failures, long skipped, long missed) {
+}
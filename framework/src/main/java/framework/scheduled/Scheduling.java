@@ -1,39 +1,77 @@
 package framework.scheduled;
 
-import framework.Framework;
+import framework.ApplicationContext;
 import framework.annotations.Scheduled;
+import framework.context.BeanDescriptor;
 import framework.exceptions.InstanceCreationWrapperException;
 import framework.exceptions.InvalidCronStringFormat;
-import framework.utils.CheckForAnnotation;
 import framework.utils.CronUtility;
 import framework.utils.PropertyAccessor;
 import org.apache.logging.log4j.util.Strings;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.System.Logger.Level;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.time.ZoneId;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * The scheduled methods of one context and the scheduler running them.
+ */
 public class Scheduling {
+    private static final System.Logger LOGGER = System.getLogger(Scheduling.class.getName());
     private static final int DEFAULT_THREAD_POOL_SIZE = 5;
-    private static final ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(getThreadPoolSize());
+    private static final long DEFAULT_TIMING_WHEEL_TICK_MILLIS = 10L;
+    private static final String TIMING_WHEEL_BACKEND = "timing-wheel";
+    // created with the first scheduled method, again after a shutdown
+    private TaskScheduler taskScheduler;
+    private final List<ScheduledJob> jobs = new CopyOnWriteArrayList<>();
 
-    public static void trigger(List<Class<?>> serviceAnnotatedClasses)
+    /**
+     * @param serviceAnnotatedClasses - classes whose @Scheduled methods are started
+     * @param context                 - context the instances of the classes are taken from
+     */
+    public void trigger(List<Class<?>> serviceAnnotatedClasses, ApplicationContext context)
             throws InvalidCronStringFormat, InstanceCreationWrapperException {
         for (Class<?> clazz : serviceAnnotatedClasses) {
-            List<Method> scheduledMethods = Arrays.stream(clazz.getDeclaredMethods())
-                    .filter(CheckForAnnotation::hasScheduled)
-                    .toList();
+            List<Method> scheduledMethods = BeanDescriptor.of(clazz).getScheduledMethods();
+            if (scheduledMethods.isEmpty()) {
+                continue;
+            }
 
-            Object classInstance = Framework.getInstanceFromAppContext(clazz);
+            Object classInstance = context.getInstance(clazz);
 
             scheduleMethods(classInstance, scheduledMethods);
         }
     }
 
+    // `scheduling.backend=timing-wheel` for many scheduled methods, a ScheduledExecutorService otherwise
+    private static TaskScheduler createTaskScheduler() {
+        String backend = (String) PropertyAccessor.getValueOf("scheduling.backend");
+
+        if (TIMING_WHEEL_BACKEND.equals(backend)) {
+            return new TimingWheelTaskScheduler(getTimingWheelTickMillis(), getThreadPoolSize());
+        }
+        return new ExecutorTaskScheduler(getThreadPoolSize());
+    }
+
+    private static long getTimingWheelTickMillis() {
+        String tickString = (String) PropertyAccessor.getValueOf("scheduling.timing-wheel.tick-ms");
+        long tickMillis = DEFAULT_TIMING_WHEEL_TICK_MILLIS;
+
+        try {
+            if (!Strings.isEmpty(tickString)) {
+                tickMillis = Long.parseLong(tickString);
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Ignoring `scheduling.timing-wheel.tick-ms` setting in properties file since it's " +
+                    "not a valid number. Found: " + tickString);
+        }
+
+        return tickMillis;
+    }
+
     private static int getThreadPoolSize() {
         String poolSizeString = (String) PropertyAccessor.getValueOf("scheduling.pool.size");
         int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
@@ -43,37 +81,101 @@ public class Scheduling {
                 threadPoolSize = Integer.parseInt(poolSizeString);
             }
         } catch (NumberFormatException e) {
-            System.out.println("Ignoring `scheduling.pool.size` setting in properties file since it's " +
+            LOGGER.log(Level.WARNING, "Ignoring `scheduling.pool.size` setting in properties file since it's " +
                     "not a valid number/integer. Found: " + poolSizeString);
         }
 
         return threadPoolSize;
     }
 
-    private static void scheduleMethods(Object classInstance, List<Method> methods) throws InvalidCronStringFormat {
+    private synchronized void scheduleMethods(Object classInstance, List<Method> methods)
+            throws InvalidCronStringFormat, InstanceCreationWrapperException {
+        if (taskScheduler == null) {
+            taskScheduler = createTaskScheduler();
+        }
+        boolean virtualThreadsByDefault = "true".equals(PropertyAccessor.getValueOf("scheduling.virtual-threads"));
+
         for (Method method : methods) {
-            long fixedRate = method.getAnnotation(Scheduled.class).fixedRate();
-            String cron = method.getAnnotation(Scheduled.class).cron();
-            long secondsToSchedule = 0;
-            if (fixedRate > 0L) {
-                secondsToSchedule = fixedRate / 1000;
-            } else {
-                secondsToSchedule = CronUtility.parseTotalSecondsFromCron(cron);
+            Scheduled scheduled = method.getAnnotation(Scheduled.class);
+            String cron = scheduled.cron();
+            boolean virtualThread = scheduled.virtualThread() || virtualThreadsByDefault;
+
+            try {
+                ScheduledJob job;
+                if (scheduled.fixedRate() > 0L) {
+                    job = ScheduledJob.fixedRate(classInstance, method, taskScheduler, scheduled.overlap(),
+                            virtualThread, scheduled.fixedRate());
+                } else if (scheduled.fixedDelay() > 0L) {
+                    job = ScheduledJob.fixedDelay(classInstance, method, taskScheduler,
+                            virtualThread, scheduled.fixedDelay());
+                } else if (CronUtility.isIntervalFormat(cron)) {
+                    job = ScheduledJob.fixedRate(classInstance, method, taskScheduler, scheduled.overlap(),
+                            virtualThread, CronUtility.parseTotalSecondsFromCron(cron) * 1000L);
+                } else {
+                    ZoneId zone = Strings.isEmpty(scheduled.zone()) ? ZoneId.systemDefault() : ZoneId.of(scheduled.zone());
+                    job = ScheduledJob.cron(classInstance, method, taskScheduler, scheduled.overlap(),
+                            virtualThread, CronExpression.parse(cron), zone);
+                }
+
+                jobs.add(job);
+                job.start(scheduled.initialDelay());
+            } catch (IllegalAccessException e) {
+                throw new InstanceCreationWrapperException(e.getMessage(), e);
             }
+        }
+    }
 
-            scheduleMethod(classInstance, method, secondsToSchedule);
+    /**
+     * Cancels every scheduled method, firings already running finish
+     */
+    public void cancelJobs() {
+        jobs.forEach(ScheduledJob::cancel);
+        jobs.clear();
+    }
+
+    /**
+     * Cancels every scheduled method and shuts the scheduler down without waiting, its threads end
+     * once running firings are done
+     */
+    public synchronized void stop() {
+        cancelJobs();
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+            taskScheduler = null;
         }
     }
 
-    private static void scheduleMethod(Object classInstance, Method method, long secondsToSchedule) {
-        Runnable methodRunnable = () -> {
-            try {
-                method.invoke(classInstance);
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new RuntimeException(e);
+    /**
+     * Cancels every scheduled method and stops the scheduler's threads once running firings are done
+     *
+     * @param deadlineNanos - System.nanoTime() to stop waiting for running firings at
+     * @return false if firings were still running at the deadline
+     */
+    public synchronized boolean shutdown(long deadlineNanos) {
+        List<ScheduledJob> cancelled = List.copyOf(jobs);
+        cancelJobs();
+        if (taskScheduler == null) {
+            return true;
+        }
+        taskScheduler.shutdown();
+        try {
+            boolean terminated = taskScheduler.awaitTermination(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            for (ScheduledJob job : cancelled) {
+                terminated &= job.awaitVirtualThreadRuns(deadlineNanos);
             }
-        };
+            return terminated;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            taskScheduler = null;
+        }
+    }
 
-        scheduledExecutorService.scheduleAtFixedRate(methodRunnable, 0, secondsToSchedule, TimeUnit.SECONDS);
+    /**
+     * @return run, failure and skip counters of every scheduled method
+     */
+    public List<ScheduledJobStats> getJobStats() {
+        return jobs.stream().map(ScheduledJob::getStats).toList();
     }
 }
@@ -0,0 +1,23 @@
+package framework.scheduled;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backend that runs the @Scheduled methods, selected with the `scheduling.backend` property.
+ */
+public interface TaskScheduler {
+    /**
+     * Runs the task once after the delay. Periodic jobs reschedule themselves, see {@link ScheduledJob}
+     */
+    void schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Drops the tasks that aren't due yet, running ones finish
+     */
+    void shutdown();
+
+    /**
+     * @return false if tasks were still running when the timeout elapsed
+     */
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+}
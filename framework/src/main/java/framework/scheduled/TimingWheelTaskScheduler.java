@@ -0,0 +1,152 @@
+package framework.scheduled;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical timing wheel backend for applications with many scheduled methods.
+ * <p>
+ * Time is cut into ticks of `scheduling.timing-wheel.tick-ms`. Each level of the wheel has 64 slots,
+ * a slot on level n spans 64^n ticks. A task goes into the lowest level whose range still contains
+ * its deadline; whenever the current tick moves into a new slot of a higher level, that slot's
+ * tasks are cascaded down to finer levels until they end up in the slot being expired.
+ * <p>
+ * Only the ticker thread touches the wheel. Other threads hand new tasks over through a lock free
+ * queue that the ticker drains every tick, and due tasks are run on a separate worker pool, so
+ * neither scheduling nor running a task contends on a shared heap like a delay queue does.
+ * Deadlines are rounded up to the next tick.
+ */
+public class TimingWheelTaskScheduler implements TaskScheduler {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    // 64^6 ticks, ~21 years at 10ms. Deadlines further out wait in the top level
+    private static final int LEVELS = 6;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final ExecutorService workers;
+    private final Queue<TimerTask> pending = new ConcurrentLinkedQueue<>();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<TimerTask>[][] wheel = new ArrayDeque[LEVELS][];
+    private final Thread ticker;
+    private volatile boolean running = true;
+    // only read and written by the ticker thread
+    private long currentTick;
+
+    private record TimerTask(Runnable task, long deadlineTick) {
+    }
+
+    public TimingWheelTaskScheduler(long tickMillis, int poolSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(tickMillis, 1L));
+        this.workers = Executors.newFixedThreadPool(poolSize);
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::tick, "scheduling-timing-wheel");
+        this.ticker.start();
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        pending.add(new TimerTask(task, deadlineTick(unit.toNanos(delay))));
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(ticker);
+        workers.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        ticker.join(Duration.ofNanos(Math.max(deadlineNanos - System.nanoTime(), 0L)));
+        return workers.awaitTermination(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private long deadlineTick(long delayNanos) {
+        return ceilDiv(System.nanoTime() - startNanos + Math.max(delayNanos, 0L), tickNanos);
+    }
+
+    private void tick() {
+        while (running) {
+            long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            long sleepNanos = nextTickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+
+            currentTick++;
+            cascade();
+
+            TimerTask task;
+            while ((task = pending.poll()) != null) {
+                add(task);
+            }
+
+            ArrayDeque<TimerTask> slot = slot(0, (int) (currentTick & SLOT_MASK));
+            while ((task = slot.poll()) != null) {
+                expire(task);
+            }
+        }
+    }
+
+    // moves the tasks of every higher level slot the current tick just entered one level down (or further)
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            long levelTicks = 1L << (SLOT_BITS * level);
+            if ((currentTick & (levelTicks - 1)) != 0) {
+                continue;
+            }
+            ArrayDeque<TimerTask> slot = slot(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            int size = slot.size();
+            for (int i = 0; i < size; i++) {
+                add(slot.poll());
+            }
+        }
+    }
+
+    private void add(TimerTask task) {
+        if (task.deadlineTick() <= currentTick) {
+            expire(task);
+            return;
+        }
+
+        // lowest level on which deadline and current tick only differ in that level's slot digit
+        int level = 0;
+        while (level < LEVELS - 1 && (task.deadlineTick() >>> (SLOT_BITS * (level + 1)))
+                != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((task.deadlineTick() >>> (SLOT_BITS * level)) & SLOT_MASK);
+        slot(level, index).add(task);
+    }
+
+    private void expire(TimerTask task) {
+        if (running) {
+            workers.execute(task.task());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArrayDeque<TimerTask> slot(int level, int index) {
+        if (wheel[level] == null) {
+            wheel[level] = new ArrayDeque[SLOTS];
+        }
+        if (wheel[level][index] == null) {
+            wheel[level][index] = new ArrayDeque<>();
+        }
+        return wheel[level][index];
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
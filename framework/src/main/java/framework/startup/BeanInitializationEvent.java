@@ -0,0 +1,31 @@
+package framework.startup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Constructing or injecting one bean. The event's duration includes dependencies that were created
+ * on the way, e.g. lazy ones, {@link #selfTime} doesn't; such a dependency has its own event naming
+ * this bean as {@link #requestedBy}.
+ */
+@Name("framework.BeanInitialization")
+@Label("Bean Initialization")
+@Category({"Framework", "Startup"})
+@Description("Constructor call or injection of a bean")
+public class BeanInitializationEvent extends jdk.jfr.Event {
+    @Label("Bean Class")
+    Class<?> beanClass;
+
+    @Label("Step")
+    String step;
+
+    @Label("Requested By")
+    Class<?> requestedBy;
+
+    @Label("Self Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long selfTime;
+}
@@ -0,0 +1,18 @@
+package framework.startup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One phase of {@code ApplicationContext.start()}, the event's duration is the phase's.
+ */
+@Name("framework.StartupPhase")
+@Label("Startup Phase")
+@Category({"Framework", "Startup"})
+@Description("A phase of creating the application context")
+public class StartupPhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,218 @@
+package framework.startup;
+
+import javax.annotation.Nullable;
+import java.lang.System.Logger.Level;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where startup spends its time: phases of the context and constructing and injecting every bean.
+ * <p>
+ * Everything is emitted as JFR events ({@link StartupPhaseEvent}, {@link BeanInitializationEvent}),
+ * e.g. with {@code -XX:StartFlightRecording}. With `framework.startup.report=true` the timings are
+ * also collected and logged at INFO, slowest beans first, once the context is up.
+ * <p>
+ * Every context has timings of its own, so contexts started concurrently don't report each other's
+ * beans. Beans created after startup (lazy and scoped ones) only emit events.
+ * <p>
+ * A bean timer tracks the beans created while it runs on the same thread, so a bean's self time
+ * doesn't include dependencies that were created for it. With neither a recording nor the report,
+ * timing a bean is a check of two fields.
+ */
+public class StartupTimings {
+    private static final System.Logger LOGGER = System.getLogger(StartupTimings.class.getName());
+    private static final ThreadLocal<BeanTimer> CURRENT_BEAN = new ThreadLocal<>();
+    private static final BeanTimer NOT_TIMED = new BeanTimer(null, null, null, null);
+    private static final StartupTimings EVENTS_ONLY = new StartupTimings(false);
+
+    private final boolean report;
+    // beans are collected until the report was logged or startup failed
+    private volatile boolean collecting;
+    private final long startNanos = System.nanoTime();
+    private final List<PhaseTiming> phases = new ArrayList<>();
+    private final Queue<BeanTiming> beans = new ConcurrentLinkedQueue<>();
+    private @Nullable String currentPhase;
+    private @Nullable StartupPhaseEvent currentPhaseEvent;
+    private long currentPhaseStartNanos;
+
+    public enum Step {CONSTRUCT, INJECT}
+
+    private record PhaseTiming(String phase, long nanos) {
+    }
+
+    private record BeanTiming(Class<?> type, Step step, long nanos, long selfNanos) {
+    }
+
+    private StartupTimings(boolean report) {
+        this.report = report;
+    }
+
+    /**
+     * @param report - collect timings for {@link #finish(int)} to print
+     */
+    public static StartupTimings start(boolean report) {
+        StartupTimings timings = new StartupTimings(report);
+        timings.collecting = report;
+        return timings;
+    }
+
+    /**
+     * @return timings that only emit the JFR events of beans, shared by contexts that aren't starting
+     */
+    public static StartupTimings eventsOnly() {
+        return EVENTS_ONLY;
+    }
+
+    /**
+     * Ends the current phase, if any, and starts the next one. Only called by the thread creating the context.
+     */
+    public void phase(String phase) {
+        endPhase();
+        currentPhase = phase;
+        currentPhaseStartNanos = System.nanoTime();
+        StartupPhaseEvent event = new StartupPhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase;
+            event.begin();
+            currentPhaseEvent = event;
+        }
+    }
+
+    /**
+     * Ends the last phase and logs the report if it's enabled
+     *
+     * @param limit - number of beans in the report
+     */
+    public void finish(int limit) {
+        endPhase();
+        if (!report) {
+            return;
+        }
+        collecting = false;
+        LOGGER.log(Level.INFO, summary(limit));
+    }
+
+    /**
+     * Stops collecting bean timings without logging anything, e.g. when startup failed
+     */
+    public void stop() {
+        collecting = false;
+    }
+
+    /**
+     * Time one step of a bean, close the timer when it's done:
+     * {@code try (BeanTimer timer = timings.startBean(type, Step.CONSTRUCT)) { ... }}
+     */
+    public BeanTimer startBean(Class<?> type, Step step) {
+        StartupTimings timings = collecting ? this : null;
+        BeanInitializationEvent event = new BeanInitializationEvent();
+        if (timings == null && !event.isEnabled()) {
+            return NOT_TIMED;
+        }
+
+        BeanTimer timer = new BeanTimer(type, step, timings, event.isEnabled() ? event : null);
+        timer.parent = CURRENT_BEAN.get();
+        CURRENT_BEAN.set(timer);
+        if (timer.event != null) {
+            timer.event.beanClass = type;
+            timer.event.step = step.name();
+            timer.event.requestedBy = timer.parent != null ? timer.parent.type : null;
+            timer.event.begin();
+        }
+        timer.startNanos = System.nanoTime();
+        return timer;
+    }
+
+    private void endPhase() {
+        if (currentPhase == null) {
+            return;
+        }
+        phases.add(new PhaseTiming(currentPhase, System.nanoTime() - currentPhaseStartNanos));
+        if (currentPhaseEvent != null) {
+            currentPhaseEvent.commit();
+        }
+        currentPhase = null;
+        currentPhaseEvent = null;
+    }
+
+    private String summary(int limit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Context started in %.1f ms%n", millis(System.nanoTime() - startNanos)));
+        for (PhaseTiming phase : phases) {
+            sb.append(String.format("  %-36s %10.2f ms%n", phase.phase(), millis(phase.nanos())));
+        }
+
+        // construct and inject of a bean summed up, a bean can be constructed more than once (scopes)
+        Map<Class<?>, long[]> byType = new HashMap<>();
+        for (BeanTiming bean : beans) {
+            long[] nanos = byType.computeIfAbsent(bean.type(), type -> new long[4]);
+            int offset = bean.step() == Step.CONSTRUCT ? 0 : 2;
+            nanos[offset] += bean.nanos();
+            nanos[offset + 1] += bean.selfNanos();
+        }
+
+        List<Map.Entry<Class<?>, long[]>> slowest = byType.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Class<?>, long[]> entry) ->
+                        entry.getValue()[0] + entry.getValue()[2]).reversed())
+                .limit(Math.max(limit, 0))
+                .toList();
+        sb.append(String.format("Slowest of %d beans, ms with dependencies (self)%n", byType.size()));
+        sb.append(String.format("  %-48s %20s %20s%n", "bean", "construct", "inject"));
+        for (Map.Entry<Class<?>, long[]> entry : slowest) {
+            long[] nanos = entry.getValue();
+            sb.append(String.format("  %-48s %10.2f (%7.2f) %10.2f (%7.2f)%n", entry.getKey().getName(),
+                    millis(nanos[0]), millis(nanos[1]), millis(nanos[2]), millis(nanos[3])));
+        }
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public static class BeanTimer implements AutoCloseable {
+        private final Class<?> type;
+        private final Step step;
+        private final @Nullable StartupTimings timings;
+        private final @Nullable BeanInitializationEvent event;
+        private @Nullable BeanTimer parent;
+        private long startNanos;
+        // time of the beans created while this one was timed
+        private long childNanos;
+
+        private BeanTimer(Class<?> type, Step step, @Nullable StartupTimings timings,
+                          @Nullable BeanInitializationEvent event) {
+            this.type = type;
+            this.step = step;
+            this.timings = timings;
+            this.event = event;
+        }
+
+        @Override
+        public void close() {
+            if (this == NOT_TIMED) {
+                return;
+            }
+            long nanos = System.nanoTime() - startNanos;
+            long selfNanos = nanos - childNanos;
+            if (parent != null) {
+                parent.childNanos += nanos;
+                CURRENT_BEAN.set(parent);
+            } else {
+                CURRENT_BEAN.remove();
+            }
+
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.selfTime = selfNanos;
+                    event.commit();
+                }
+            }
+            if (timings != null) {
+                timings.beans.add(new BeanTiming(type, step, nanos, selfNanos));
+            }
+        }
+    }
+}
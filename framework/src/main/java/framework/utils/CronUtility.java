@@ -3,6 +3,13 @@ package framework.utils;
 import framework.exceptions.InvalidCronStringFormat;
 
 public class CronUtility {
+    /**
+     * @return true for the legacy "seconds minutes" interval format, e.g. "5 1" => every 65 seconds
+     */
+    public static boolean isIntervalFormat(String cronString) {
+        return cronString.trim().split("\\s+").length == 2;
+    }
+
     public static int parseTotalSecondsFromCron(String cronString) throws InvalidCronStringFormat {
         String[] secondsAndMinutes = cronString.trim().split(" ");
         if (secondsAndMinutes.length != 2) {
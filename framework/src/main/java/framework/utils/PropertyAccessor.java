@@ -1,36 +1,149 @@
 package framework.utils;
 
-import framework.exceptions.ResourcePropertiesNotFoundException;
+import framework.config.ConversionService;
+import framework.config.PropertySources;
+import framework.exceptions.PropertyConversionException;
 
-import java.io.InputStream;
-import java.util.Properties;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-// Singleton Property Accessor class
+/**
+ * Singleton Property Accessor class
+ * <p>
+ * Properties are held in an immutable snapshot of the flattened {@link PropertySources} chain,
+ * published through a volatile field. {@link #reload()} builds a new snapshot from the sources and swaps it in, so readers never lock and always see either
+ * the old or the new properties as a whole. Converted values are cached on the snapshot they were
+ * converted from and are dropped with it.
+ */
 public class PropertyAccessor {
-    private static volatile Properties properties;
-    private final String RESOURCE_NAME = "application.properties";
+    private static final System.Logger LOGGER = System.getLogger(PropertyAccessor.class.getName());
+    private static final Object MISSING = new Object();
+    private static final ConversionService CONVERSION_SERVICE = new ConversionService();
+    private static volatile PropertySources propertySources = new PropertySources(getClassLoader());
+    private static volatile Snapshot snapshot;
+
+    // converted values by key, then by target type
+    private record Snapshot(Map<String, String> values, Map<String, Map<Type, Object>> convertedValues) {
+        Snapshot(Map<String, String> values) {
+            this(Map.copyOf(values), new ConcurrentHashMap<>());
+        }
+    }
+
     private PropertyAccessor() {
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream(RESOURCE_NAME)) {
-            if (input == null) {
-                throw new ResourcePropertiesNotFoundException();
-            }
-            properties = new Properties();
-            properties.load(input);
+        Map<String, String> loaded = Map.of();
+        try {
+            loaded = propertySources.flatten();
         } catch (Exception ex) {
-            ex.printStackTrace();
+            LOGGER.log(Level.ERROR, "Couldn't load the properties, starting without any", ex);
         }
+        snapshot = new Snapshot(loaded);
     }
 
+    /**
+     * @param args - command line arguments, `--key=value` ones take precedence over every other source
+     */
+    public static synchronized void setCommandLineArgs(String... args) {
+        propertySources = new PropertySources(getClassLoader(), args);
+        snapshot = null;
+        getSnapshot();
+    }
 
-    public static Object getValueOf(String key) {
-        if (properties == null) {
+    private static Snapshot getSnapshot() {
+        if (snapshot == null) {
             synchronized (PropertyAccessor.class) {
-                if (properties == null) {
+                if (snapshot == null) {
                     new PropertyAccessor();
                 }
             }
         }
-        if(!properties.containsKey(key)) return null;
-        return properties.get(key);
+        return snapshot;
+    }
+
+    public static Object getValueOf(String key) {
+        return getSnapshot().values().get(key);
+    }
+
+    /**
+     * @param key        - property key
+     * @param targetType - type of the field or parameter the value is bound to, e.g. int, Duration or List&lt;String&gt;
+     * @return the converted value, null if the key isn't set. Converted once per key and type,
+     * repeated lookups return the cached value
+     * @throws PropertyConversionException - if the value can't be converted to the type
+     */
+    public static Object getValue(String key, Type targetType) throws PropertyConversionException {
+        Snapshot current = getSnapshot();
+        Map<Type, Object> valuesByType = current.convertedValues().get(key);
+        if (valuesByType != null) {
+            Object cached = valuesByType.get(targetType);
+            if (cached != null) {
+                return cached == MISSING ? null : cached;
+            }
+        }
+
+        String raw = current.values().get(key);
+        Object converted = raw == null ? null : CONVERSION_SERVICE.convert(raw, targetType);
+        current.convertedValues().computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                .put(targetType, converted == null ? MISSING : converted);
+        return converted;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T getValue(String key, Class<T> targetType) throws PropertyConversionException {
+        return (T) getValue(key, (Type) targetType);
+    }
+
+    /**
+     * @return the property files that live on the file system, none if they're packaged in a jar
+     */
+    public static List<Path> getPropertiesFiles() {
+        return propertySources.getFiles((String) getValueOf(PropertySources.PROFILE_KEY));
+    }
+
+    /**
+     * Re-reads every property source and swaps the new properties in.
+     *
+     * @return keys that were added, removed or changed, empty if nothing changed
+     */
+    public static synchronized Set<String> reload() throws IOException {
+        Map<String, String> reloaded = propertySources.flatten();
+
+        Set<String> changedKeys = getChangedKeys(getSnapshot().values(), reloaded);
+        if (!changedKeys.isEmpty()) {
+            snapshot = new Snapshot(reloaded);
+        }
+        return changedKeys;
+    }
+
+    /**
+     * @return the current properties, they're replaced as a whole by {@link #reload()}
+     */
+    public static Map<String, String> getValues() {
+        return getSnapshot().values();
+    }
+
+    /**
+     * @return keys that were added, removed or changed from previous to current
+     */
+    public static Set<String> getChangedKeys(Map<String, String> previous, Map<String, String> current) {
+        Set<String> changedKeys = new TreeSet<>();
+        for (String key : previous.keySet()) {
+            if (!Objects.equals(previous.get(key), current.get(key))) {
+                changedKeys.add(key);
+            }
+        }
+        for (String key : current.keySet()) {
+            if (!previous.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        return Collections.unmodifiableSet(changedKeys);
+    }
+
+    private static ClassLoader getClassLoader() {
+        return PropertyAccessor.class.getClassLoader();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package framework;
+
+import framework.exceptions.ContextStartupException;
+import framework.exceptions.InstanceCreationWrapperException;
+import framework.fixtures.child.ChildBeans;
+import framework.fixtures.lifecycle.LifecycleBeans;
+import framework.fixtures.parent.ParentBeans;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApplicationContextTest {
+    private final List<ApplicationContext> contexts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LifecycleBeans.DESTROYED.set(0);
+    }
+
+    @AfterEach
+    void closeContexts() {
+        contexts.reversed().forEach(ApplicationContext::close);
+    }
+
+    @Test
+    void initializesLazyBeansCreatedOnStartupAfterTheirDependencies() throws Exception {
+        ApplicationContext context = start(ApplicationContext.builder().basePackages("framework.fixtures.lifecycle"));
+
+        LifecycleBeans.Consumer consumer = (LifecycleBeans.Consumer) context.getInstance(LifecycleBeans.Consumer.class);
+
+        assertEquals(Boolean.TRUE, consumer.lazyDependent.eagerInitializedOnPostConstruct);
+        assertSame(consumer.lazyDependent, context.getInstance(LifecycleBeans.LazyDependent.class));
+    }
+
+    @Test
+    void keepsTheInstancesOfSiblingContextsApart() throws Exception {
+        ApplicationContext first = start(ApplicationContext.builder().basePackages("framework.fixtures.lifecycle"));
+        ApplicationContext second = start(ApplicationContext.builder().basePackages("framework.fixtures.lifecycle"));
+
+        Object firstEager = first.getInstance(LifecycleBeans.Eager.class);
+        assertNotSame(firstEager, second.getInstance(LifecycleBeans.Eager.class));
+
+        first.close();
+        assertFalse(first.isRunning());
+        assertEquals(1, LifecycleBeans.DESTROYED.get());
+        assertTrue(second.isRunning());
+        assertNotSame(firstEager, second.getInstance(LifecycleBeans.Eager.class));
+    }
+
+    @Test
+    void injectsAChildWithTheSingletonsOfItsParent() throws Exception {
+        ApplicationContext parent = start(ApplicationContext.builder().basePackages("framework.fixtures.parent"));
+        ApplicationContext child = start(ApplicationContext.builder().parent(parent).basePackages("framework.fixtures.child"));
+
+        Object repository = parent.getInstance(ParentBeans.SharedRepository.class);
+        ChildBeans.Controller controller = (ChildBeans.Controller) child.getInstance(ChildBeans.Controller.class);
+        assertSame(repository, controller.repository);
+        assertSame(repository, child.getInstance(ParentBeans.SharedRepository.class));
+        assertSame(parent, child.getParent());
+        // the parent doesn't see into its children
+        assertThrows(InstanceCreationWrapperException.class, () -> parent.getInstance(ChildBeans.Controller.class));
+
+        parent.close();
+        assertFalse(child.isRunning());
+    }
+
+    @Test
+    void startsAgainAfterEveryCloseOrFailedStart() throws Exception {
+        Object previousEager = null;
+        for (int i = 1; i <= 5; i++) {
+            ApplicationContext context = start(ApplicationContext.builder().basePackages("framework.fixtures.lifecycle"));
+            Object eager = context.getInstance(LifecycleBeans.Eager.class);
+            assertNotSame(previousEager, eager);
+            previousEager = eager;
+
+            context.close();
+            assertEquals(i, LifecycleBeans.DESTROYED.get());
+            // nothing is left in the closed context
+            assertThrows(InstanceCreationWrapperException.class, () -> context.getInstance(LifecycleBeans.Eager.class));
+            assertThrows(IllegalStateException.class, context::start);
+
+            ApplicationContext failing = ApplicationContext.builder().basePackages("framework.fixtures.cycle").build();
+            assertThrows(ContextStartupException.class, failing::start);
+            assertFalse(failing.isRunning());
+        }
+    }
+
+    private ApplicationContext start(ApplicationContext.Builder builder) {
+        ApplicationContext context = builder.build();
+        contexts.add(context);
+        return context.start();
+    }
+}
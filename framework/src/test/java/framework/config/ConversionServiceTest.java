@@ -0,0 +1,137 @@
+package framework.config;
+
+import framework.exceptions.PropertyConversionException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionServiceTest {
+    private final ConversionService conversionService = new ConversionService();
+
+    enum Mode {FAST, SAFE_MODE}
+
+    // generic field types to convert to
+    @SuppressWarnings("unused")
+    private static class Targets {
+        List<Duration> durations;
+        Set<Mode> modes;
+        List<List<Integer>> nested;
+        Map<String, String> map;
+    }
+
+    @Test
+    void trimsNumbersAndBoxesPrimitives() throws PropertyConversionException {
+        assertEquals(42, conversionService.convert(" 42 ", int.class));
+        assertEquals(42L, conversionService.convert("42", Long.class));
+        assertEquals((short) -7, conversionService.convert("-7", short.class));
+        assertEquals(1.5, conversionService.convert("1.5", double.class));
+    }
+
+    @Test
+    void failsOnNumbersOutOfRange() {
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("128", byte.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("2147483648", int.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("", int.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("fz", Integer.class));
+    }
+
+    @Test
+    void acceptsRelaxedBooleans() throws PropertyConversionException {
+        for (String value : List.of("true", "YES", " on ", "1")) {
+            assertEquals(Boolean.TRUE, conversionService.convert(value, boolean.class), value);
+        }
+        for (String value : List.of("false", "No", "OFF", "0")) {
+            assertEquals(Boolean.FALSE, conversionService.convert(value, Boolean.class), value);
+        }
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("maybe", boolean.class));
+    }
+
+    @Test
+    void keepsStringsAndCharactersAsTheyAre() throws PropertyConversionException {
+        assertEquals("  padded ", conversionService.convert("  padded ", String.class));
+        assertEquals(' ', conversionService.convert(" ", char.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("ab", char.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("", Character.class));
+    }
+
+    @Test
+    void parsesShortAndIsoDurations() throws PropertyConversionException {
+        assertEquals(Duration.ofMillis(250), conversionService.convert("250", Duration.class));
+        assertEquals(Duration.ofMillis(500), conversionService.convert("500ms", Duration.class));
+        assertEquals(Duration.ofNanos(10), conversionService.convert("10ns", Duration.class));
+        assertEquals(Duration.ofSeconds(10), conversionService.convert("10S", Duration.class));
+        assertEquals(Duration.ofMinutes(5), conversionService.convert(" 5m ", Duration.class));
+        assertEquals(Duration.ofHours(2), conversionService.convert("2h", Duration.class));
+        assertEquals(Duration.ofDays(1), conversionService.convert("1d", Duration.class));
+        assertEquals(Duration.ofSeconds(90), conversionService.convert("PT1M30S", Duration.class));
+        assertEquals(Duration.ofSeconds(-10), conversionService.convert("-pt10s", Duration.class));
+
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("10w", Duration.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("", Duration.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("ms", Duration.class));
+    }
+
+    @Test
+    void parsesBinaryDataSizes() throws PropertyConversionException {
+        assertEquals(DataSize.ofBytes(512), conversionService.convert("512", DataSize.class));
+        assertEquals(DataSize.ofBytes(512), conversionService.convert("512B", DataSize.class));
+        assertEquals(DataSize.ofBytes(64 * 1024), conversionService.convert("64kb", DataSize.class));
+        assertEquals(DataSize.ofBytes(10L << 20), conversionService.convert("10 MB", DataSize.class));
+        assertEquals(DataSize.ofBytes(1L << 40), conversionService.convert("1TB", DataSize.class));
+
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("9999999TB", DataSize.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("1PB", DataSize.class));
+    }
+
+    @Test
+    void matchesEnumConstantsRelaxed() throws PropertyConversionException {
+        assertEquals(Mode.FAST, conversionService.convert("fast", Mode.class));
+        assertEquals(Mode.SAFE_MODE, conversionService.convert(" safe-mode ", Mode.class));
+        assertEquals(Mode.SAFE_MODE, conversionService.convert("Safe_Mode", Mode.class));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("slow", Mode.class));
+    }
+
+    @Test
+    void splitsArraysListsAndSets() throws Exception {
+        assertArrayEquals(new Object[]{1, 2, 3}, box((int[]) conversionService.convert("1, 2,3", int[].class)));
+        assertArrayEquals(new String[]{"a", "b"}, (String[]) conversionService.convert("a,b", String[].class));
+        assertEquals(0, ((int[]) conversionService.convert("  ", int[].class)).length);
+
+        assertEquals(List.of(Duration.ofSeconds(1), Duration.ofMillis(20)),
+                conversionService.convert("1s, 20ms", fieldType("durations")));
+        assertEquals(List.of(), conversionService.convert("", fieldType("durations")));
+        // duplicates collapse, first occurrence keeps its position
+        assertEquals(List.of(Mode.SAFE_MODE, Mode.FAST),
+                List.copyOf((Set<?>) conversionService.convert("safe-mode,fast,FAST", fieldType("modes"))));
+        assertThrows(UnsupportedOperationException.class,
+                () -> ((List<?>) conversionService.convert("1s", fieldType("durations"))).clear());
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("1,x", int[].class));
+    }
+
+    @Test
+    void rejectsTypesItCantConvertTo() throws Exception {
+        assertFalse(conversionService.canConvert(fieldType("map")));
+        assertFalse(conversionService.canConvert(Thread.class));
+        assertTrue(conversionService.canConvert(fieldType("nested")));
+        assertTrue(conversionService.canConvert(fieldType("modes")));
+        assertThrows(PropertyConversionException.class, () -> conversionService.convert("a=b", fieldType("map")));
+    }
+
+    private static Type fieldType(String field) throws NoSuchFieldException {
+        return Targets.class.getDeclaredField(field).getGenericType();
+    }
+
+    private static Object[] box(int[] values) {
+        Object[] boxed = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,112 @@
+package framework.context;
+
+import framework.ApplicationContext;
+import framework.exceptions.CircularDependencyException;
+import framework.exceptions.ContextStartupException;
+import framework.fixtures.cycle.CycleBeans;
+import framework.fixtures.diamond.DiamondBeans;
+import framework.utils.PropertyAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGraphTest {
+    private static final List<String> DIAMOND_INITIALIZATION_ORDER = List.of("Bottom", "Left", "Right", "Top");
+
+    @BeforeEach
+    void setUp() {
+        DiamondBeans.INITIALIZED.clear();
+    }
+
+    @AfterEach
+    void resetCommandLine() {
+        PropertyAccessor.setCommandLineArgs();
+    }
+
+    @Test
+    void groupsADiamondIntoLevels() throws Exception {
+        DependencyGraph graph = diamond();
+
+        assertEquals(List.of(
+                List.of(DiamondBeans.Bottom.class),
+                List.of(DiamondBeans.Left.class, DiamondBeans.Right.class),
+                List.of(DiamondBeans.Top.class)), graph.getCreationLevels());
+    }
+
+    @Test
+    void sortsEveryLevelByClassName() throws Exception {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addNode(String.class);
+        graph.addNode(Integer.class);
+        graph.addDependency(Long.class, String.class);
+
+        assertEquals(List.of(List.of(Integer.class, String.class), List.of(Long.class)), graph.getCreationLevels());
+    }
+
+    @Test
+    void reportsTheClassesOfACycle() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addNode(CycleBeans.Independent.class);
+        graph.addDependency(CycleBeans.First.class, CycleBeans.Second.class);
+        graph.addDependency(CycleBeans.Second.class, CycleBeans.First.class);
+
+        CircularDependencyException e = assertThrows(CircularDependencyException.class, graph::getCreationLevels);
+        assertTrue(e.getMessage().contains(CycleBeans.First.class.getName()));
+        assertTrue(e.getMessage().contains(CycleBeans.Second.class.getName()));
+        assertFalse(e.getMessage().contains(CycleBeans.Independent.class.getName()));
+    }
+
+    @Test
+    void wiresADiamondSequentially() throws Exception {
+        assertDiamondWiring("1");
+    }
+
+    @Test
+    void wiresADiamondConcurrently() throws Exception {
+        assertDiamondWiring("4");
+    }
+
+    @Test
+    void failsToStartOnACycle() {
+        for (String parallelism : List.of("1", "4")) {
+            PropertyAccessor.setCommandLineArgs("--framework.startup.parallelism=" + parallelism);
+            ApplicationContext context = ApplicationContext.builder().basePackages("framework.fixtures.cycle").build();
+
+            ContextStartupException e = assertThrows(ContextStartupException.class, context::start);
+            assertInstanceOf(CircularDependencyException.class, e.getCause().getCause());
+            assertFalse(context.isRunning());
+        }
+    }
+
+    private static void assertDiamondWiring(String parallelism) throws Exception {
+        PropertyAccessor.setCommandLineArgs("--framework.startup.parallelism=" + parallelism);
+        ApplicationContext context = ApplicationContext.builder().basePackages("framework.fixtures.diamond").build();
+        try {
+            context.start();
+
+            DiamondBeans.Top top = (DiamondBeans.Top) context.getInstance(DiamondBeans.Top.class);
+            DiamondBeans.Bottom bottom = (DiamondBeans.Bottom) context.getInstance(DiamondBeans.Bottom.class);
+            assertSame(context.getInstance(DiamondBeans.Left.class), top.left);
+            assertSame(context.getInstance(DiamondBeans.Right.class), top.right);
+            assertSame(bottom, top.left.bottom);
+            assertSame(bottom, top.right.bottom);
+            // initialized in the order of the levels, however the instances were created
+            assertEquals(DIAMOND_INITIALIZATION_ORDER, DiamondBeans.INITIALIZED);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static DependencyGraph diamond() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addDependency(DiamondBeans.Top.class, DiamondBeans.Right.class);
+        graph.addDependency(DiamondBeans.Top.class, DiamondBeans.Left.class);
+        graph.addDependency(DiamondBeans.Left.class, DiamondBeans.Bottom.class);
+        graph.addDependency(DiamondBeans.Right.class, DiamondBeans.Bottom.class);
+        return graph;
+    }
+}
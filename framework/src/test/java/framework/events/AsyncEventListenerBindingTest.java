@@ -0,0 +1,178 @@
+package framework.events;
+
+import framework.annotations.EventListener.Backpressure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncEventListenerBindingTest {
+    private static final long TIMEOUT_SECONDS = 5;
+    // the listener doesn't return from this event until released, so the ones behind it stay queued
+    private static final String BLOCKING = "blocking";
+    private static final String FAILING = "failing";
+
+    private final Listener listener = new Listener();
+    private AsyncEventListenerBinding binding;
+
+    public static class Listener {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final List<String> events = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        public void onEvent(String event) throws InterruptedException {
+            synchronized (this) {
+                events.add(event);
+                threads.add(Thread.currentThread());
+            }
+            if (BLOCKING.equals(event)) {
+                blocked.countDown();
+                assertTrue(released.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            if (FAILING.equals(event)) {
+                throw new IllegalStateException("failed on purpose");
+            }
+        }
+
+        synchronized List<String> events() {
+            return List.copyOf(events);
+        }
+
+        synchronized Thread thread(String event) {
+            return threads.get(events.indexOf(event));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        listener.released.countDown();
+        if (binding != null) {
+            binding.close();
+            binding.awaitClosed(deadline());
+        }
+    }
+
+    @Test
+    void blocksThePublisherUntilTheQueueHasRoom() throws Exception {
+        long droppedBefore = fillQueue(Backpressure.BLOCK);
+
+        Thread publisher = Thread.ofPlatform().start(() -> binding.deliver("c"));
+        publisher.join(Duration.ofMillis(100));
+        assertTrue(publisher.isAlive());
+        assertEquals(List.of(BLOCKING), listener.events());
+
+        listener.released.countDown();
+        publisher.join(Duration.ofSeconds(TIMEOUT_SECONDS));
+        assertFalse(publisher.isAlive());
+        closeAndAwait();
+
+        assertEquals(List.of(BLOCKING, "a", "b", "c"), listener.events());
+        assertEquals(droppedBefore, binding.getStats().dropped());
+    }
+
+    @Test
+    void dropsTheOldestQueuedEventWhenFull() throws Exception {
+        long droppedBefore = fillQueue(Backpressure.DROP_OLDEST);
+
+        binding.deliver("c");
+        binding.deliver("d");
+
+        ListenerQueueStats stats = binding.getStats();
+        assertEquals(2, stats.depth());
+        assertEquals(droppedBefore + 2, stats.dropped());
+
+        listener.released.countDown();
+        closeAndAwait();
+        assertEquals(List.of(BLOCKING, "c", "d"), listener.events());
+    }
+
+    @Test
+    void deliversOnThePublishersThreadWhenFull() throws Exception {
+        long droppedBefore = fillQueue(Backpressure.CALLER_RUNS);
+
+        binding.deliver("c");
+
+        assertEquals(List.of(BLOCKING, "c"), listener.events());
+        assertSame(Thread.currentThread(), listener.thread("c"));
+
+        listener.released.countDown();
+        closeAndAwait();
+        assertEquals(List.of(BLOCKING, "c", "a", "b"), listener.events());
+        assertNotSame(Thread.currentThread(), listener.thread("a"));
+        assertEquals(droppedBefore, binding.getStats().dropped());
+    }
+
+    @Test
+    void reportsDepthLagAndFailures() throws Exception {
+        binding = new AsyncEventListenerBinding(listener, onEvent(), String.class, 4, Backpressure.BLOCK);
+        long failedBefore = binding.getStats().failed();
+        binding.deliver(BLOCKING);
+        assertTrue(listener.blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        binding.deliver(FAILING);
+        binding.deliver("a");
+        Thread.sleep(20);
+
+        ListenerQueueStats stats = binding.getStats();
+        assertEquals(binding.getName(), stats.listener());
+        assertEquals(2, stats.depth());
+        assertEquals(4, stats.capacity());
+        assertTrue(stats.lagNanos() >= TimeUnit.MILLISECONDS.toNanos(20), String.valueOf(stats.lagNanos()));
+
+        listener.released.countDown();
+        closeAndAwait();
+
+        // the failing event is skipped, the ones behind it still delivered
+        stats = binding.getStats();
+        assertEquals(List.of(BLOCKING, FAILING, "a"), listener.events());
+        assertEquals(0, stats.depth());
+        assertEquals(0, stats.lagNanos());
+        assertEquals(failedBefore + 1, stats.failed());
+    }
+
+    @Test
+    void deliversTheQueueOnCloseAndLaterEventsOnThePublishersThread() throws Exception {
+        fillQueue(Backpressure.BLOCK);
+
+        binding.close();
+        binding.deliver("c");
+        assertSame(Thread.currentThread(), listener.thread("c"));
+
+        listener.released.countDown();
+        assertTrue(binding.awaitClosed(deadline()));
+        assertEquals(List.of(BLOCKING, "c", "a", "b"), listener.events());
+    }
+
+    // the listener is blocked on its first event and "a" and "b" fill the queue behind it
+    private long fillQueue(Backpressure backpressure) throws Exception {
+        binding = new AsyncEventListenerBinding(listener, onEvent(), String.class, 2, backpressure);
+        long droppedBefore = binding.getStats().dropped();
+        binding.deliver(BLOCKING);
+        assertTrue(listener.blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        binding.deliver("a");
+        binding.deliver("b");
+        assertEquals(2, binding.getStats().depth());
+        return droppedBefore;
+    }
+
+    private void closeAndAwait() throws InterruptedException {
+        binding.close();
+        assertTrue(binding.awaitClosed(deadline()));
+    }
+
+    private static long deadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+    }
+
+    private static Method onEvent() throws NoSuchMethodException {
+        return Listener.class.getMethod("onEvent", String.class);
+    }
+}
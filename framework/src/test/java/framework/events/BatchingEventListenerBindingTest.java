@@ -0,0 +1,105 @@
+package framework.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingEventListenerBindingTest {
+    // long enough for the window never to flush during a test
+    private static final long NO_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Listener listener = new Listener();
+    private BatchingEventListenerBinding binding;
+
+    public static class Listener {
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final List<List<String>> batches = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        public void onBatch(List<String> batch) {
+            synchronized (this) {
+                batches.add(List.copyOf(batch));
+                threads.add(Thread.currentThread());
+            }
+            delivered.countDown();
+        }
+
+        synchronized List<List<String>> batches() {
+            return List.copyOf(batches);
+        }
+
+        synchronized List<Thread> threads() {
+            return List.copyOf(threads);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (binding != null) {
+            binding.close();
+        }
+    }
+
+    @Test
+    void deliversOnThePublishersThreadOnceTheBatchIsFull() throws Exception {
+        binding = binding(3, NO_WINDOW_MILLIS);
+
+        binding.deliver("a");
+        binding.deliver("b");
+        assertEquals(List.of(), listener.batches());
+
+        binding.deliver("c");
+        assertEquals(List.of(List.of("a", "b", "c")), listener.batches());
+        assertEquals(List.of(Thread.currentThread()), listener.threads());
+    }
+
+    @Test
+    void deliversEveryBatchCompletedByPublishingAll() throws Exception {
+        binding = binding(3, NO_WINDOW_MILLIS);
+        binding.deliver("a");
+
+        binding.deliverAll(List.of("b", "c", "d", "e", "f", "g", "h"));
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("d", "e", "f")), listener.batches());
+
+        binding.flush();
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("d", "e", "f"), List.of("g", "h")),
+                listener.batches());
+    }
+
+    @Test
+    void deliversWhatIsBufferedWhenTheWindowElapses() throws Exception {
+        binding = binding(100, 20);
+
+        binding.deliverAll(List.of("a", "b"));
+
+        assertTrue(listener.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("a", "b")), listener.batches());
+        assertNotSame(Thread.currentThread(), listener.threads().getFirst());
+    }
+
+    @Test
+    void deliversTheBufferOnCloseAndLaterEventsOnTheirOwn() throws Exception {
+        binding = binding(100, NO_WINDOW_MILLIS);
+        binding.deliver("a");
+        binding.deliver("b");
+
+        binding.close();
+        assertEquals(List.of(List.of("a", "b")), listener.batches());
+
+        binding.deliver("c");
+        binding.deliverAll(List.of("d", "e"));
+        assertEquals(List.of(List.of("a", "b"), List.of("c"), List.of("d", "e")), listener.batches());
+    }
+
+    private BatchingEventListenerBinding binding(int batchSize, long batchWindowMillis) throws Exception {
+        Method onBatch = Listener.class.getMethod("onBatch", List.class);
+        return new BatchingEventListenerBinding(listener, onBatch, String.class, batchSize, batchWindowMillis);
+    }
+}
@@ -0,0 +1,15 @@
+package framework.fixtures.child;
+
+import framework.annotations.Service;
+import framework.fixtures.parent.ParentBeans;
+
+public class ChildBeans {
+    @Service
+    public static class Controller {
+        public final ParentBeans.SharedRepository repository;
+
+        public Controller(ParentBeans.SharedRepository repository) {
+            this.repository = repository;
+        }
+    }
+}
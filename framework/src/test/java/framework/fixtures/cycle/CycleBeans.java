@@ -0,0 +1,21 @@
+package framework.fixtures.cycle;
+
+import framework.annotations.Service;
+
+public class CycleBeans {
+    @Service
+    public static class First {
+        public First(Second second) {
+        }
+    }
+
+    @Service
+    public static class Second {
+        public Second(First first) {
+        }
+    }
+
+    @Service
+    public static class Independent {
+    }
+}
@@ -0,0 +1,65 @@
+package framework.fixtures.diamond;
+
+import framework.annotations.PostConstruct;
+import framework.annotations.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Top needs Left and Right, which both need Bottom
+public class DiamondBeans {
+    public static final List<String> INITIALIZED = Collections.synchronizedList(new ArrayList<>());
+
+    @Service
+    public static class Bottom {
+        @PostConstruct
+        void init() {
+            INITIALIZED.add("Bottom");
+        }
+    }
+
+    @Service
+    public static class Left {
+        public final Bottom bottom;
+
+        public Left(Bottom bottom) {
+            this.bottom = bottom;
+        }
+
+        @PostConstruct
+        void init() {
+            INITIALIZED.add("Left");
+        }
+    }
+
+    @Service
+    public static class Right {
+        public final Bottom bottom;
+
+        public Right(Bottom bottom) {
+            this.bottom = bottom;
+        }
+
+        @PostConstruct
+        void init() {
+            INITIALIZED.add("Right");
+        }
+    }
+
+    @Service
+    public static class Top {
+        public final Left left;
+        public final Right right;
+
+        public Top(Left left, Right right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @PostConstruct
+        void init() {
+            INITIALIZED.add("Top");
+        }
+    }
+}
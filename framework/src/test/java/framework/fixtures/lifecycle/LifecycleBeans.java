@@ -0,0 +1,53 @@
+package framework.fixtures.lifecycle;
+
+import framework.annotations.Lazy;
+import framework.annotations.PostConstruct;
+import framework.annotations.PreDestroy;
+import framework.annotations.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// a lazy bean created during startup, because an eager one's constructor needs it
+public class LifecycleBeans {
+    public static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    @Service
+    public static class Eager {
+        volatile boolean initialized;
+
+        @PostConstruct
+        void init() {
+            initialized = true;
+        }
+
+        @PreDestroy
+        void destroy() {
+            DESTROYED.incrementAndGet();
+        }
+    }
+
+    @Lazy
+    @Service
+    public static class LazyDependent {
+        private final Eager eager;
+        public volatile Boolean eagerInitializedOnPostConstruct;
+
+        public LazyDependent(Eager eager) {
+            this.eager = eager;
+        }
+
+        @PostConstruct
+        void init() {
+            eagerInitializedOnPostConstruct = eager.initialized;
+        }
+    }
+
+    @Service
+    public static class Consumer {
+        public final LazyDependent lazyDependent;
+
+        public Consumer(LazyDependent lazyDependent) {
+            this.lazyDependent = lazyDependent;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package framework.fixtures.parent;
+
+import framework.annotations.Service;
+
+public class ParentBeans {
+    @Service
+    public static class SharedRepository {
+    }
+}
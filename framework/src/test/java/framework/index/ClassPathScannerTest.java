@@ -0,0 +1,159 @@
+package framework.index;
+
+import framework.annotations.ComponentScan;
+import framework.annotations.ConfigurationProperties;
+import framework.annotations.Service;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassPathScannerTest {
+    private static final String SERVICE = "Lframework/annotations/Service;";
+    private static final String CONFIGURATION_PROPERTIES = "Lframework/annotations/ConfigurationProperties;";
+    private static final String BUILD_TIME = "Lframework/index/ClassPathScannerTest$BuildTime;";
+
+    @TempDir
+    Path directory;
+
+    @Retention(RetentionPolicy.CLASS)
+    @interface BuildTime {
+        String[] tags() default {};
+    }
+
+    // every kind of annotation element value and long and double constants in the constant pool
+    @ComponentScan(basePackages = {"a", "b"}, excludeFilters = {
+            @ComponentScan.Filter(type = ComponentScan.FilterType.REGEX, pattern = ".*Mock"),
+            @ComponentScan.Filter(classes = Deprecated.class)})
+    @Service(value = "annotated", scope = Service.Scope.PROTOTYPE)
+    @BuildTime(tags = "x")
+    static class AnnotatedService {
+        static long big = 1234567890123L;
+        static double ratio = 0.25;
+
+        @Deprecated
+        String field;
+
+        long sum(long a, double b) {
+            return a + (long) (b * big * ratio);
+        }
+    }
+
+    @ConfigurationProperties(prefix = "scanned")
+    static class ScannedProperties {
+        int port;
+    }
+
+    // refers to @Service without carrying it
+    static class NotAnnotated {
+        Class<?> type = Service.class;
+    }
+
+    @Test
+    void readsVisibleAndInvisibleClassAnnotations() throws IOException {
+        Map.Entry<String, Set<String>> header = ClassPathScanner.readHeader(bytes(AnnotatedService.class),
+                Set.of(SERVICE, CONFIGURATION_PROPERTIES, BUILD_TIME));
+
+        assertNotNull(header);
+        assertEquals(AnnotatedService.class.getName(), header.getKey());
+        assertEquals(Set.of(SERVICE, BUILD_TIME), header.getValue());
+    }
+
+    @Test
+    void readsOnlyTheWantedAnnotations() throws IOException {
+        Map.Entry<String, Set<String>> header = ClassPathScanner.readHeader(bytes(ScannedProperties.class),
+                Set.of(SERVICE, CONFIGURATION_PROPERTIES));
+
+        assertNotNull(header);
+        assertEquals(Set.of(CONFIGURATION_PROPERTIES), header.getValue());
+        assertNull(ClassPathScanner.readHeader(bytes(ScannedProperties.class), Set.of(SERVICE)));
+    }
+
+    @Test
+    void ignoresClassesThatOnlyReferToAnAnnotation() throws IOException {
+        assertNull(ClassPathScanner.readHeader(bytes(NotAnnotated.class), Set.of(SERVICE)));
+    }
+
+    @Test
+    void ignoresWhatIsNotAClassFile() throws IOException {
+        assertNull(ClassPathScanner.readHeader(new byte[0], Set.of(SERVICE)));
+        assertNull(ClassPathScanner.readHeader("not a class file".getBytes(), Set.of(SERVICE)));
+    }
+
+    @Test
+    void scansClassDirectories() throws Exception {
+        ClassPathScanner scanner = new ClassPathScanner(getClass().getClassLoader(), null);
+
+        Map<Class<?>, Set<Class<?>>> annotated = scanner.scan(List.of("framework.index", "framework.index.missing"),
+                List.of(Service.class, ConfigurationProperties.class));
+
+        assertTrue(annotated.get(Service.class).contains(AnnotatedService.class));
+        assertFalse(annotated.get(Service.class).contains(NotAnnotated.class));
+        assertTrue(annotated.get(ConfigurationProperties.class).contains(ScannedProperties.class));
+    }
+
+    @Test
+    void scansJarsConcurrently() throws Exception {
+        Path jar = directory.resolve("scanned.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            // directory entries, like the jars of a build, so the class loader finds the package
+            for (String directoryEntry : List.of("framework/", "framework/index/")) {
+                out.putNextEntry(new JarEntry(directoryEntry));
+                out.closeEntry();
+            }
+            for (Class<?> type : List.of(AnnotatedService.class, ScannedProperties.class, NotAnnotated.class)) {
+                out.putNextEntry(new JarEntry(resourceName(type)));
+                out.write(bytes(type));
+                out.closeEntry();
+            }
+        }
+
+        // not delegating to the test's class loader, so only the jar has the classes
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()},
+                ClassLoader.getPlatformClassLoader())) {
+            ForkJoinPool pool = new ForkJoinPool(2);
+            try {
+                Map<Class<?>, Set<Class<?>>> annotated = new ClassPathScanner(loader, pool)
+                        .scan(List.of("framework"), List.of(Service.class, ConfigurationProperties.class));
+
+                assertEquals(Set.of(AnnotatedService.class.getName()), names(annotated.get(Service.class)));
+                assertEquals(Set.of(ScannedProperties.class.getName()),
+                        names(annotated.get(ConfigurationProperties.class)));
+                assertSame(loader, annotated.get(Service.class).iterator().next().getClassLoader());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static Set<String> names(Set<Class<?>> types) {
+        return types.stream().map(Class::getName).collect(Collectors.toSet());
+    }
+
+    private static String resourceName(Class<?> type) {
+        return type.getName().replace('.', '/') + ".class";
+    }
+
+    private static byte[] bytes(Class<?> type) throws IOException {
+        try (InputStream in = ClassPathScannerTest.class.getClassLoader().getResourceAsStream(resourceName(type))) {
+            assertNotNull(in, resourceName(type));
+            return in.readAllBytes();
+        }
+    }
+}
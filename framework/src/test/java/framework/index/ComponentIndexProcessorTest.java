@@ -0,0 +1,243 @@
+package framework.index;
+
+import framework.annotations.Service;
+import framework.injection.GeneratedContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentIndexProcessorTest {
+    private static final String REPOSITORY = """
+            package app;
+
+            import framework.annotations.Service;
+
+            @Service
+            public class Repository {
+            }
+            """;
+    private static final String CONTROLLER = """
+            package app;
+
+            import framework.annotations.Autowired;
+            import framework.annotations.Service;
+
+            @Service
+            public class Controller {
+                @Autowired
+                public Repository repository;
+
+                public final String[] names;
+                public final int[][] grid;
+
+                public Controller(Repository repository, String[] names, int[][] grid) {
+                    this.repository = repository;
+                    this.names = names;
+                    this.grid = grid;
+                }
+            }
+            """;
+    private static final String OUTER = """
+            package app;
+
+            import framework.annotations.Service;
+
+            public class Outer {
+                @Service
+                public static class Inner {
+                }
+            }
+            """;
+    private static final String SETTINGS = """
+            package app;
+
+            import framework.annotations.ConfigurationProperties;
+
+            @ConfigurationProperties(prefix = "settings")
+            public class Settings {
+                int port;
+            }
+            """;
+
+    @TempDir
+    Path directory;
+
+    private Path sources;
+    private Path classes;
+    private Path generatedSources;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sources = Files.createDirectories(directory.resolve("src"));
+        classes = Files.createDirectories(directory.resolve("classes"));
+        generatedSources = Files.createDirectories(directory.resolve("generated"));
+    }
+
+    @Test
+    void indexesServicesAndConfigurationTypes() throws Exception {
+        compile(List.of(), source("Repository", REPOSITORY), source("Controller", CONTROLLER),
+                source("Outer", OUTER), source("Settings", SETTINGS));
+
+        assertEquals(List.of(
+                "service app.Controller",
+                "constructor app.Repository,[Ljava.lang.String;,[[I",
+                "service app.Outer$Inner",
+                "constructor",
+                "service app.Repository",
+                "constructor",
+                "config app.Settings",
+                "constructor"), index());
+    }
+
+    @Test
+    void generatesFactoriesAndTheContextDispatchingToThem() throws Exception {
+        compile(List.of(), source("Repository", REPOSITORY), source("Controller", CONTROLLER),
+                source("Outer", OUTER), source("Settings", SETTINGS));
+
+        assertTrue(Files.exists(generatedSources.resolve("app/Controller_FrameworkFactory.java")));
+        assertTrue(Files.exists(generatedSources.resolve("app/Outer_Inner_FrameworkFactory.java")));
+        assertFalse(Files.exists(generatedSources.resolve("app/Settings_FrameworkFactory.java")));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader())) {
+            GeneratedContext context = GeneratedContext.load(loader).orElseThrow();
+            Class<?> repository = loader.loadClass("app.Repository");
+            Class<?> controller = loader.loadClass("app.Controller");
+            Class<?> inner = loader.loadClass("app.Outer$Inner");
+
+            assertTrue(context.hasInstantiator(repository));
+            assertTrue(context.hasInstantiator(inner));
+            assertTrue(context.hasInjector(controller));
+            assertFalse(context.hasInstantiator(loader.loadClass("app.Settings")));
+
+            Object repositoryInstance = context.newInstance(repository, new Object[0]);
+            String[] names = {"a"};
+            Object controllerInstance = context.newInstance(controller,
+                    new Object[]{repositoryInstance, names, new int[0][]});
+            assertSame(repositoryInstance, controller.getDeclaredField("repository").get(controllerInstance));
+            assertSame(names, controller.getDeclaredField("names").get(controllerInstance));
+        }
+    }
+
+    @Test
+    void skipsTheFactoriesWhenAotIsDisabled() throws Exception {
+        compile(List.of("-Aframework.aot=false"), source("Repository", REPOSITORY));
+
+        assertEquals(List.of("service app.Repository", "constructor"), index());
+        assertFalse(Files.exists(classes.resolve("app/Repository_FrameworkFactory.class")));
+        assertFalse(Files.exists(classes.resolve(GeneratedContext.LOCATION)));
+        try (var generated = Files.list(classes.resolve("app"))) {
+            assertTrue(generated.noneMatch(file -> file.getFileName().toString()
+                    .startsWith(GeneratedContext.SIMPLE_NAME_PREFIX)));
+        }
+    }
+
+    @Test
+    void mergesTheGeneratedContextsOfSeveralModules() throws Exception {
+        compile(List.of(), source("Repository", REPOSITORY));
+        Path firstModule = classes;
+        classes = Files.createDirectories(directory.resolve("second-classes"));
+        compile(List.of(), source("Outer", OUTER));
+
+        // both modules have services in the same package
+        List<String> firstContexts = contexts(firstModule);
+        List<String> secondContexts = contexts(classes);
+        assertEquals(1, firstContexts.size());
+        assertEquals(1, secondContexts.size());
+        assertTrue(firstContexts.getFirst().startsWith("app." + GeneratedContext.SIMPLE_NAME_PREFIX));
+        assertNotEquals(firstContexts, secondContexts);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{firstModule.toUri().toURL(), classes.toUri().toURL()},
+                getClass().getClassLoader())) {
+            GeneratedContext context = GeneratedContext.load(loader).orElseThrow();
+
+            assertTrue(context.hasInstantiator(loader.loadClass("app.Repository")));
+            assertTrue(context.hasInstantiator(loader.loadClass("app.Outer$Inner")));
+            assertNotNull(context.newInstance(loader.loadClass("app.Outer$Inner"), new Object[0]));
+        }
+    }
+
+    @Test
+    void keepsTheEntriesOfUnchangedTypesOnIncrementalCompiles() throws Exception {
+        compile(List.of(), source("Repository", REPOSITORY), source("Controller", CONTROLLER),
+                source("Settings", SETTINGS));
+
+        // only the changed sources, the rest of the module is on the classpath
+        String unannotatedRepository = REPOSITORY.replace("@Service\n", "");
+        compile(List.of(), source("Repository", unannotatedRepository), source("Outer", OUTER));
+
+        List<String> index = index();
+        assertTrue(index.contains("service app.Controller"));
+        assertTrue(index.contains("config app.Settings"));
+        assertTrue(index.contains("service app.Outer$Inner"));
+        assertFalse(index.contains("service app.Repository"));
+        // the new context covers the compiled services, the previous one the others
+        assertEquals(2, contexts(classes).size());
+    }
+
+    private static List<String> contexts(Path classes) throws IOException {
+        return Files.readAllLines(classes.resolve(GeneratedContext.LOCATION)).stream()
+                .filter(line -> !line.startsWith("#"))
+                .toList();
+    }
+
+    private Path source(String className, String source) throws IOException {
+        Path file = sources.resolve("app").resolve(className + ".java");
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, source);
+    }
+
+    private List<String> index() throws IOException {
+        return Files.readAllLines(classes.resolve(ComponentIndex.INDEX_LOCATION)).stream()
+                .filter(line -> !line.startsWith("#"))
+                .toList();
+    }
+
+    private void compile(List<String> options, Path... files) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(classes));
+            fileManager.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, List.of(generatedSources));
+
+            List<String> arguments = new ArrayList<>(options);
+            arguments.add("-classpath");
+            arguments.add(frameworkClasses() + File.pathSeparator + classes);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, arguments, null,
+                    fileManager.getJavaFileObjects(files));
+            task.setProcessors(List.of(new ComponentIndexProcessor()));
+
+            boolean compiled = task.call();
+            assertTrue(compiled, diagnostics.getDiagnostics().toString());
+            // e.g. for a generated source created in the last round, which javac doesn't compile
+            assertTrue(diagnostics.getDiagnostics().stream().noneMatch(d -> d.getKind() == Diagnostic.Kind.ERROR
+                            || d.getKind() == Diagnostic.Kind.WARNING || d.getKind() == Diagnostic.Kind.MANDATORY_WARNING),
+                    diagnostics.getDiagnostics().toString());
+        }
+    }
+
+    private static String frameworkClasses() {
+        try {
+            return Path.of(Service.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package framework.index;
+
+import framework.annotations.ConfigurationProperties;
+import framework.annotations.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextSnapshotTest {
+    private static final String PROFILE = "dev";
+    private static final String SCAN_SCOPE = "application";
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private ClassLoader classLoader;
+
+    @Service
+    public static class Repository {
+        public Repository() {
+        }
+    }
+
+    @Service
+    public static class Controller {
+        Repository repository;
+
+        public Controller() {
+        }
+
+        public Controller(Repository repository) {
+            this.repository = repository;
+        }
+    }
+
+    @ConfigurationProperties(prefix = "settings")
+    public static class Settings {
+        int port;
+    }
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("context.snapshot");
+        classLoader = getClass().getClassLoader();
+    }
+
+    @Test
+    void readsBackWhatWasCaptured() throws Exception {
+        capture(PROFILE, SCAN_SCOPE).write(file, classLoader);
+
+        ContextSnapshot snapshot = ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, classLoader).orElseThrow();
+
+        ComponentIndex index = snapshot.getComponentIndex();
+        assertEquals(Set.of(Repository.class, Controller.class), index.getServiceTypes());
+        assertEquals(Set.of(Settings.class), index.getConfigurationTypes());
+        assertEquals(Set.of(Repository.class, Controller.class, Settings.class, Runnable.class),
+                snapshot.getManagedTypes());
+        assertEquals(List.of(List.of(Repository.class, Settings.class), List.of(Controller.class)),
+                snapshot.getCreationLevels());
+        assertEquals(Optional.of(Controller.class.getConstructor(Repository.class)),
+                index.getPreferredConstructor(Controller.class));
+        assertEquals(Optional.of(Repository.class.getConstructor()), index.getPreferredConstructor(Repository.class));
+        assertFalse(Files.exists(directory.resolve("context.snapshot.tmp")));
+    }
+
+    @Test
+    void isIgnoredForAnotherProfileOrScanScope() throws Exception {
+        capture(PROFILE, SCAN_SCOPE).write(file, classLoader);
+
+        assertTrue(ContextSnapshot.read(file, "", SCAN_SCOPE, classLoader).isEmpty());
+        assertTrue(ContextSnapshot.read(file, "prod", SCAN_SCOPE, classLoader).isEmpty());
+        assertTrue(ContextSnapshot.read(file, PROFILE, "application.web", classLoader).isEmpty());
+        assertTrue(ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, classLoader).isPresent());
+    }
+
+    @Test
+    void isIgnoredWhenMissingCorruptOrOfAnotherVersion() throws Exception {
+        assertTrue(ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, classLoader).isEmpty());
+
+        capture(PROFILE, SCAN_SCOPE).write(file, classLoader);
+        byte[] bytes = Files.readAllBytes(file);
+
+        // version follows the magic number
+        byte[] otherVersion = bytes.clone();
+        ByteBuffer.wrap(otherVersion).putInt(Integer.BYTES, 1);
+        Files.write(file, otherVersion);
+        assertTrue(ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, classLoader).isEmpty());
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertTrue(ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, classLoader).isEmpty());
+
+        Files.write(file, "not a snapshot".getBytes());
+        assertTrue(ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, classLoader).isEmpty());
+    }
+
+    @Test
+    void isIgnoredWhenAClassOrTheComponentIndexChanged() throws Exception {
+        Path classes = directory.resolve("classes");
+        Path repositoryClass = classes.resolve(resourceName(Repository.class));
+        Files.createDirectories(repositoryClass.getParent());
+        Files.write(repositoryClass, bytes(Repository.class));
+
+        // not delegating to the test's class loader, so the classes come from the directory
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()},
+                ClassLoader.getPlatformClassLoader())) {
+            ContextSnapshot.capture(PROFILE, SCAN_SCOPE, emptyIndex(), Set.of(Repository.class), Set.of(),
+                    Set.of(Repository.class), Map.of(), List.of(List.of(Repository.class))).write(file, loader);
+
+            ContextSnapshot snapshot = ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, loader).orElseThrow();
+            assertSame(loader, snapshot.getCreationLevels().get(0).get(0).getClassLoader());
+
+            Path index = classes.resolve(ComponentIndex.INDEX_LOCATION);
+            Files.createDirectories(index.getParent());
+            Files.writeString(index, "service " + Repository.class.getName() + "\n");
+            assertTrue(ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, loader).isEmpty());
+
+            ContextSnapshot.capture(PROFILE, SCAN_SCOPE, emptyIndex(), Set.of(Repository.class), Set.of(),
+                    Set.of(Repository.class), Map.of(), List.of(List.of(Repository.class))).write(file, loader);
+            assertTrue(ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, loader).isPresent());
+
+            Files.write(repositoryClass, bytes(Controller.class));
+            assertTrue(ContextSnapshot.read(file, PROFILE, SCAN_SCOPE, loader).isEmpty());
+        }
+    }
+
+    private static ContextSnapshot capture(String profile, String scanScope) throws NoSuchMethodException {
+        return ContextSnapshot.capture(profile, scanScope, emptyIndex(),
+                Set.of(Repository.class, Controller.class), Set.of(Settings.class),
+                Set.of(Repository.class, Controller.class, Settings.class, Runnable.class),
+                Map.of(Repository.class, Repository.class.getConstructor(),
+                        Controller.class, Controller.class.getConstructor(Repository.class)),
+                List.of(List.of(Repository.class, Settings.class), List.of(Controller.class)));
+    }
+
+    private static ComponentIndex emptyIndex() {
+        return new ComponentIndex(Set.of(), Set.of(), Map.of());
+    }
+
+    private static String resourceName(Class<?> type) {
+        return type.getName().replace('.', '/') + ".class";
+    }
+
+    private static byte[] bytes(Class<?> type) throws IOException {
+        try (InputStream in = ContextSnapshotTest.class.getClassLoader().getResourceAsStream(resourceName(type))) {
+            assertNotNull(in, resourceName(type));
+            return in.readAllBytes();
+        }
+    }
+}
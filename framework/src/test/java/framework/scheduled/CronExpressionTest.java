@@ -0,0 +1,126 @@
+package framework.scheduled;
+
+import framework.exceptions.InvalidCronStringFormat;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronExpressionTest {
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void nextFireTimeIsStrictlyAfterTheGivenTime() throws InvalidCronStringFormat {
+        CronExpression everySecond = CronExpression.parse("* * * * * *");
+
+        assertEquals(utc(2024, 9, 2, 10, 0, 1), everySecond.nextFireTime(utc(2024, 9, 2, 10, 0, 0)));
+        assertEquals(utc(2024, 9, 2, 10, 0, 1), everySecond.nextFireTime(utc(2024, 9, 2, 10, 0, 0).plusNanos(500_000_000)));
+    }
+
+    @Test
+    void rollsOverEveryFieldAtItsBoundary() throws InvalidCronStringFormat {
+        CronExpression newYear = CronExpression.parse("0 0 0 1 1 *");
+        CronExpression lastSecondOfYear = CronExpression.parse("59 59 23 31 12 *");
+
+        assertEquals(utc(2025, 1, 1, 0, 0, 0), newYear.nextFireTime(utc(2024, 12, 31, 23, 59, 59)));
+        assertEquals(utc(2026, 1, 1, 0, 0, 0), newYear.nextFireTime(utc(2025, 1, 1, 0, 0, 0)));
+        assertEquals(utc(2024, 12, 31, 23, 59, 59), lastSecondOfYear.nextFireTime(utc(2024, 1, 1, 0, 0, 0)));
+        assertEquals(utc(2025, 12, 31, 23, 59, 59), lastSecondOfYear.nextFireTime(utc(2024, 12, 31, 23, 59, 59)));
+    }
+
+    @Test
+    void appliesRangesStepsAndLists() throws InvalidCronStringFormat {
+        CronExpression expression = CronExpression.parse("0 0/20 9-17/4 * * *");
+
+        assertEquals(utc(2024, 9, 2, 9, 0, 0), expression.nextFireTime(utc(2024, 9, 2, 8, 30, 0)));
+        assertEquals(utc(2024, 9, 2, 9, 20, 0), expression.nextFireTime(utc(2024, 9, 2, 9, 0, 0)));
+        assertEquals(utc(2024, 9, 2, 13, 0, 0), expression.nextFireTime(utc(2024, 9, 2, 9, 40, 0)));
+        assertEquals(utc(2024, 9, 3, 9, 0, 0), expression.nextFireTime(utc(2024, 9, 2, 17, 40, 0)));
+
+        CronExpression list = CronExpression.parse("15,45 0 0 * JAN,JUL *");
+        assertEquals(utc(2025, 7, 1, 0, 0, 15), list.nextFireTime(utc(2025, 1, 31, 0, 0, 45)));
+    }
+
+    @Test
+    void findsTheNextLeapDayAndGivesUpOnImpossibleDates() throws InvalidCronStringFormat {
+        assertEquals(utc(2028, 2, 29, 0, 0, 0),
+                CronExpression.parse("0 0 0 29 2 *").nextFireTime(utc(2025, 3, 1, 0, 0, 0)));
+        assertNull(CronExpression.parse("0 0 0 30 2 *").nextFireTime(utc(2025, 3, 1, 0, 0, 0)));
+    }
+
+    @Test
+    void matchesEitherDayFieldWhenBothAreRestricted() throws InvalidCronStringFormat {
+        // 2024-09-01 is a Sunday, 2024-09-13 a Friday
+        CronExpression fridayOrThirteenth = CronExpression.parse("0 0 0 13 * FRI");
+
+        assertEquals(utc(2024, 9, 6, 0, 0, 0), fridayOrThirteenth.nextFireTime(utc(2024, 9, 1, 0, 0, 0)));
+        assertEquals(utc(2024, 9, 13, 0, 0, 0), fridayOrThirteenth.nextFireTime(utc(2024, 9, 6, 0, 0, 0)));
+        assertEquals(utc(2024, 9, 20, 0, 0, 0), fridayOrThirteenth.nextFireTime(utc(2024, 9, 13, 0, 0, 0)));
+        assertEquals(utc(2024, 10, 4, 0, 0, 0), fridayOrThirteenth.nextFireTime(utc(2024, 9, 27, 0, 0, 0)));
+    }
+
+    @Test
+    void matchesOnlyTheRestrictedDayField() throws InvalidCronStringFormat {
+        assertEquals(utc(2024, 9, 2, 12, 0, 0),
+                CronExpression.parse("0 0 12 * * MON").nextFireTime(utc(2024, 9, 1, 0, 0, 0)));
+        assertEquals(utc(2024, 9, 8, 0, 0, 0),
+                CronExpression.parse("0 0 0 ? * 7").nextFireTime(utc(2024, 9, 1, 0, 0, 0)));
+        assertEquals(utc(2024, 9, 8, 0, 0, 0),
+                CronExpression.parse("0 0 0 ? * 0").nextFireTime(utc(2024, 9, 1, 0, 0, 0)));
+        assertEquals(utc(2024, 10, 13, 0, 0, 0),
+                CronExpression.parse("0 0 0 13 * ?").nextFireTime(utc(2024, 9, 13, 0, 0, 0)));
+    }
+
+    @Test
+    void movesTimesInADaylightSavingGapForward() throws InvalidCronStringFormat {
+        // clocks jump from 02:00 to 03:00 on 2024-03-31
+        CronExpression halfPastTwo = CronExpression.parse("0 30 2 * * *");
+
+        ZonedDateTime next = halfPastTwo.nextFireTime(berlin(2024, 3, 31, 1, 0, 0));
+
+        assertEquals(ZonedDateTime.of(2024, 3, 31, 3, 30, 0, 0, BERLIN), next);
+        assertEquals(ZoneOffset.ofHours(2), next.getOffset());
+        assertEquals(berlin(2024, 4, 1, 2, 30, 0), halfPastTwo.nextFireTime(next));
+    }
+
+    @Test
+    void firesRepeatedTimesOfADaylightSavingOverlapOnce() throws InvalidCronStringFormat {
+        // clocks go back from 03:00 to 02:00 on 2024-10-27
+        CronExpression halfPastTwo = CronExpression.parse("0 30 2 * * *");
+
+        ZonedDateTime first = halfPastTwo.nextFireTime(berlin(2024, 10, 27, 1, 0, 0));
+
+        assertEquals(ZoneOffset.ofHours(2), first.getOffset());
+        assertEquals(LocalDateTime.of(2024, 10, 27, 2, 30), first.toLocalDateTime());
+        assertEquals(berlin(2024, 10, 28, 2, 30, 0), halfPastTwo.nextFireTime(first));
+
+        // searching from the second pass doesn't go back to its earlier offset
+        ZonedDateTime secondPass = first.withLaterOffsetAtOverlap().minusMinutes(15);
+        CronExpression quarterHourly = CronExpression.parse("0 */15 * * * *");
+        ZonedDateTime next = quarterHourly.nextFireTime(secondPass);
+        assertTrue(next.isAfter(secondPass));
+        assertEquals(ZonedDateTime.of(2024, 10, 27, 3, 0, 0, 0, BERLIN), next);
+    }
+
+    @Test
+    void rejectsMalformedExpressions() {
+        assertThrows(InvalidCronStringFormat.class, () -> CronExpression.parse("0 0 0 * *"));
+        assertThrows(InvalidCronStringFormat.class, () -> CronExpression.parse("60 0 0 * * *"));
+        assertThrows(InvalidCronStringFormat.class, () -> CronExpression.parse("0 0 0 0 * *"));
+        assertThrows(InvalidCronStringFormat.class, () -> CronExpression.parse("0 0 0 * FOO *"));
+        assertThrows(InvalidCronStringFormat.class, () -> CronExpression.parse("0 0 0 * * */0"));
+    }
+
+    private static ZonedDateTime utc(int year, int month, int day, int hour, int minute, int second) {
+        return ZonedDateTime.of(year, month, day, hour, minute, second, 0, UTC);
+    }
+
+    private static ZonedDateTime berlin(int year, int month, int day, int hour, int minute, int second) {
+        return ZonedDateTime.of(year, month, day, hour, minute, second, 0, BERLIN);
+    }
+}
@@ -0,0 +1,98 @@
+package framework.scheduled;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTaskSchedulerTest {
+    // generous, the test only checks that a task isn't lost or fired early
+    private static final long LATE_TOLERANCE_MILLIS = 500L;
+
+    private TimingWheelTaskScheduler scheduler;
+
+    @BeforeEach
+    void createScheduler() {
+        scheduler = new TimingWheelTaskScheduler(1L, 2);
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void firesTasksOfEveryLevelAfterCascadingThemDown() throws InterruptedException {
+        // with 1ms ticks: level 0 up to 64ms, level 1 up to 4096ms, level 2 beyond
+        List<Long> delaysMillis = List.of(0L, 5L, 63L, 64L, 65L, 130L, 1000L, 4100L);
+        Map<Long, Long> firedAfterMillis = new ConcurrentHashMap<>();
+        CountDownLatch fired = new CountDownLatch(delaysMillis.size());
+
+        long start = System.nanoTime();
+        for (long delayMillis : delaysMillis) {
+            scheduler.schedule(() -> {
+                firedAfterMillis.put(delayMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                fired.countDown();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(fired.await(10L, TimeUnit.SECONDS), "fired only " + firedAfterMillis.keySet());
+        for (long delayMillis : delaysMillis) {
+            long firedAfter = firedAfterMillis.get(delayMillis);
+            assertTrue(firedAfter >= delayMillis, delayMillis + "ms task fired early, after " + firedAfter + "ms");
+            assertTrue(firedAfter <= delayMillis + LATE_TOLERANCE_MILLIS,
+                    delayMillis + "ms task fired late, after " + firedAfter + "ms");
+        }
+    }
+
+    @Test
+    void firesTasksInDeadlineOrder() throws InterruptedException {
+        List<Long> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(3);
+        for (long delayMillis : List.of(200L, 20L, 90L)) {
+            scheduler.schedule(() -> {
+                order.add(delayMillis);
+                fired.countDown();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(fired.await(5L, TimeUnit.SECONDS));
+        assertEquals(List.of(20L, 90L, 200L), order);
+    }
+
+    @Test
+    void firesEveryTaskScheduledConcurrently() throws InterruptedException {
+        int threads = 4;
+        int tasksPerThread = 2_000;
+        CountDownLatch fired = new CountDownLatch(threads * tasksPerThread);
+        for (int t = 0; t < threads; t++) {
+            Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < tasksPerThread; i++) {
+                    scheduler.schedule(fired::countDown, i % 150, TimeUnit.MILLISECONDS);
+                }
+            });
+        }
+
+        assertTrue(fired.await(10L, TimeUnit.SECONDS), fired.getCount() + " tasks didn't fire");
+    }
+
+    @Test
+    void dropsPendingTasksOnShutdown() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        scheduler.schedule(fired::countDown, 200L, TimeUnit.MILLISECONDS);
+
+        scheduler.shutdown();
+
+        assertTrue(scheduler.awaitTermination(5L, TimeUnit.SECONDS));
+        assertFalse(fired.await(300L, TimeUnit.MILLISECONDS));
+    }
+}